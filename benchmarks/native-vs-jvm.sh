@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+#
+# Compares the JVM and native executables of get-contributors:
+# the startup time and peak RSS of --help, and the run time, CPU time and peak RSS of the clone and update runs of
+# EndToEndBenchmark, against the same synthetic repositories and stub GitHub API.
+#
+# usage: benchmarks/native-vs-jvm.sh [repositories] [commits per repository] [runs]
+#
+# Set SKIP_BUILD=true to reuse the executables of a previous build and NATIVE_BUILD_ARGS to pass options to the native
+# build, for instance NATIVE_BUILD_ARGS=-Dquarkus.native.container-build=true when GraalVM is not installed.
+#
+set -euo pipefail
+
+REPOSITORIES=${1:-50}
+COMMITS=${2:-20000}
+RUNS=${3:-5}
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$ROOT/target/native-vs-jvm
+JAR=$ROOT/target/quarkus-app/quarkus-run.jar
+NATIVE=$ROOT/target/get-contributors-1.0.0-SNAPSHOT-runner
+BENCHMARKS=$ROOT/benchmarks/target/benchmarks.jar
+
+if [[ "${SKIP_BUILD:-false}" != "true" ]]; then
+    (cd "$ROOT" && ./mvnw -B -q install -DskipTests && ./mvnw -B -q package -DskipTests -Dnative ${NATIVE_BUILD_ARGS:-})
+    (cd "$ROOT/benchmarks" && ../mvnw -B -q package -DskipTests)
+fi
+
+# prints the wall time in milliseconds and the peak RSS in MB of a command,
+# the peak RSS is the high water mark of the process, read until it exits
+measure() {
+    local start end pid peak=0 hwm
+    start=$(date +%s%N)
+    "$@" > /dev/null &
+    pid=$!
+    while hwm=$(awk '/^VmHWM/ { print $2 }' "/proc/$pid/status" 2> /dev/null) && [[ -n "$hwm" ]]; do
+        peak=$hwm
+        sleep 0.01
+    done
+    wait "$pid"
+    end=$(date +%s%N)
+    echo "$(((end - start) / 1000000)) $((peak / 1024))"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+startup() {
+    local label=$1 startup
+    shift
+    startup=$(for i in $(seq 1 "$RUNS"); do measure "$@" --help; done)
+    printf "%-8s %14s %18s\n" "$label" "$(cut -d' ' -f1 <<< "$startup" | median)" "$(cut -d' ' -f2 <<< "$startup" | median)"
+}
+
+# the fixture is the one of EndToEndBenchmark: the repositories are generated by the first run and reused by the next
+# ones as long as the parameters don't change
+run() {
+    local label=$1
+    shift
+    echo
+    echo "$label"
+    java -cp "$BENCHMARKS" io.quarkus.bot.EndToEndBenchmark --repositories "$REPOSITORIES" --commits "$COMMITS" \
+        --runs "$RUNS" --work-directory "$WORK" "$@"
+}
+
+echo "Medians of $RUNS runs of --help"
+printf "%-8s %14s %18s\n" "" "startup (ms)" "startup RSS (MB)"
+startup jvm java ${JAVA_OPTS:-} -jar "$JAR"
+if [[ -x "$NATIVE" ]]; then
+    startup native "$NATIVE"
+fi
+
+run jvm --executable "$JAR" ${JAVA_OPTS:+--jvm-options "$JAVA_OPTS"}
+if [[ -x "$NATIVE" ]]; then
+    run native --executable "$NATIVE"
+else
+    echo
+    echo "No native executable in $NATIVE"
+fi
@@ -0,0 +1,83 @@
+package io.quarkus.bot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.bot.GetContributors.Contribution;
+import io.quarkus.bot.GetContributors.ContributionWriter;
+import io.quarkus.bot.GetContributors.OutputFormat;
+import io.quarkus.bot.GetContributors.RepositoryCommits;
+
+/**
+ * Writing of the resolved contributions in the various output formats.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContributionWritingBenchmark {
+
+    @Param({ "200" })
+    int repositories;
+
+    @Param({ "1000000" })
+    int commits;
+
+    @Param({ "20000" })
+    int authors;
+
+    @Param({ "csv", "jsonl", "binary" })
+    OutputFormat outputFormat;
+
+    private List<Contribution> contributions;
+
+    private Path directory;
+
+    @Setup
+    public void setup() throws IOException {
+        List<RepositoryCommits> repositoryCommits = new ArrayList<>();
+        for (byte[] log : SyntheticGitLog.generateRepositories(repositories, commits, authors, 1.1, 42)) {
+            repositoryCommits
+                    .add(GetContributors.countAuthorCommits(new ByteArrayInputStream(log), SyntheticGitLog.windows(1)));
+        }
+        contributions = IdentityResolutionBenchmark.resolveIdentities(repositoryCommits);
+        directory = Files.createTempDirectory("contribution-writing-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputFormat.file(directory.resolve("contributors").toString()));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Path writeContributions() throws IOException {
+        Path file = outputFormat.file(directory.resolve("contributors").toString());
+        try (ContributionWriter writer = outputFormat.open(file)) {
+            for (Contribution contribution : contributions) {
+                writer.write(contribution);
+            }
+        }
+        return file;
+    }
+}
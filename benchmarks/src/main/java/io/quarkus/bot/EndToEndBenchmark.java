@@ -0,0 +1,286 @@
+package io.quarkus.bot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Runs the whole {@code GetContributors} pipeline, discovery, clones, logs, identity resolution and output, against
+ * synthetic local repositories served by a {@link StubGitHubApi}, and measures the wall time, the CPU time and the peak
+ * memory of each run.
+ * <p>
+ * The first run clones all the repositories, the next ones update the existing clones.
+ * <p>
+ * The CPU time and the memory are read from {@code /proc} every 10 ms: the CPU time includes the git processes, the
+ * peak RSS of the process tree is the highest sum of the RSS of the JVM and of its git processes.
+ */
+@Command(name = "end-to-end-benchmark", mixinStandardHelpOptions = true)
+public class EndToEndBenchmark implements Callable<Integer> {
+
+    private static final List<String> TRANSLATIONS = List.of("quarkusio/ja.quarkus.io", "quarkusio/pt.quarkus.io",
+            "quarkusio/zh.quarkus.io");
+
+    @Option(names = "--repositories", paramLabel = "<repositories>", description = "Number of Quarkiverse extensions, the Quarkus, platform and translations repositories are always generated", defaultValue = "100")
+    int repositories;
+
+    @Option(names = "--commits", paramLabel = "<commits>", description = "Average number of commits per repository", defaultValue = "1000")
+    int commits;
+
+    @Option(names = "--authors", paramLabel = "<authors>", description = "Number of distinct contributors", defaultValue = "2000")
+    int authors;
+
+    @Option(names = "--skew", paramLabel = "<skew>", description = "Exponent of the Zipf distribution of the commits among the contributors", defaultValue = "1.1")
+    double skew;
+
+    @Option(names = "--directories", paramLabel = "<directories>", description = "Number of top level directories of the repositories, the commits are spread over them", defaultValue = "4")
+    int directories;
+
+    @Option(names = "--seed", paramLabel = "<seed>", defaultValue = "42")
+    long seed;
+
+    @Option(names = "--runs", paramLabel = "<runs>", description = "Number of runs, the first one clones the repositories and the next ones update the clones", defaultValue = "2")
+    int runs;
+
+    @Option(names = "--work-directory", paramLabel = "<workDirectory>", description = "Directory of the generated repositories and of the runs", defaultValue = "target/end-to-end")
+    Path workDirectory;
+
+    @Option(names = "--executable", paramLabel = "<executable>", description = "The get-contributors jar or native executable", defaultValue = "../target/quarkus-app/quarkus-run.jar")
+    Path executable;
+
+    @Option(names = "--jvm-options", paramLabel = "<jvmOptions>", split = " ", description = "Options of the JVM running the jar")
+    List<String> jvmOptions = new ArrayList<>();
+
+    @Parameters(paramLabel = "<arguments>", description = "Arguments of get-contributors, after --")
+    List<String> arguments = new ArrayList<>(List.of("--since", "2020-01-01"));
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new EndToEndBenchmark()).execute(args));
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        if (!Files.exists(executable)) {
+            throw new IllegalStateException("No get-contributors executable in " + executable
+                    + ", build it with ./mvnw package -DskipTests from the root of the repository");
+        }
+
+        Path remotesDirectory = workDirectory.resolve("remotes").toAbsolutePath();
+        generateRepositories(remotesDirectory);
+
+        Path runDirectory = workDirectory.resolve("run").toAbsolutePath();
+        delete(runDirectory);
+        Files.createDirectories(runDirectory);
+
+        try (StubGitHubApi api = StubGitHubApi.start(0, remotesDirectory,
+                Map.of("quarkus-extension", extensions(), "translation", TRANSLATIONS))) {
+            List<String> command = new ArrayList<>();
+            if (executable.toString().endsWith(".jar")) {
+                command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+                command.addAll(jvmOptions);
+                command.add("-jar");
+            }
+            command.add(executable.toAbsolutePath().normalize().toString());
+            command.add("--github-api-url");
+            command.add(api.url());
+            command.addAll(arguments);
+
+            System.out.println("Running " + String.join(" ", command) + " in " + runDirectory);
+            System.out.println();
+            System.out.printf("%-6s %10s %10s %16s %17s %14s%n", "run", "wall (ms)", "CPU (ms)", "JVM peak RSS (MB)",
+                    "tree peak RSS (MB)", "API requests");
+
+            for (int run = 1; run <= runs; run++) {
+                int requests = api.requests();
+                int notModifiedResponses = api.notModifiedResponses();
+
+                Measurement measurement = measure(command, runDirectory, runDirectory.resolve("run-" + run + ".log"));
+
+                System.out.printf("%-6s %10d %10s %16s %17s %14s%n", run == 1 ? "clone" : "update",
+                        measurement.wallMillis(), format(measurement.cpuMillis()), format(measurement.peakRssMegabytes()),
+                        format(measurement.peakTreeRssMegabytes()),
+                        (api.requests() - requests) + " (" + (api.notModifiedResponses() - notModifiedResponses)
+                                + " 304)");
+            }
+        }
+
+        System.out.println();
+        System.out.println("The logs and the run report of the last run are in " + runDirectory);
+        return 0;
+    }
+
+    /**
+     * The Quarkus repository, the platform projects, the Quarkiverse extensions and the website translations, with the
+     * root analyzed in each of them.
+     */
+    private Map<String, String> repositoryRoots() {
+        Map<String, String> repositoryRoots = new TreeMap<>();
+        repositoryRoots.put("quarkusio/quarkus", ".");
+        repositoryRoots.putAll(GetContributors.PLATFORM_PROJECTS);
+        for (String extension : extensions()) {
+            repositoryRoots.putIfAbsent(extension, ".");
+        }
+        for (String translation : TRANSLATIONS) {
+            repositoryRoots.put(translation, ".");
+        }
+        return repositoryRoots;
+    }
+
+    /**
+     * The synthetic extensions and the Quarkiverse platform projects.
+     */
+    private List<String> extensions() {
+        List<String> extensions = new ArrayList<>();
+        for (int i = 1; i <= repositories; i++) {
+            extensions.add(String.format("quarkiverse/quarkus-synthetic-%04d", i));
+        }
+        for (String platformProject : GetContributors.PLATFORM_PROJECTS.keySet()) {
+            if (platformProject.startsWith("quarkiverse/")) {
+                extensions.add(platformProject);
+            }
+        }
+        return extensions;
+    }
+
+    /**
+     * The repositories are only generated again if the parameters have changed.
+     */
+    private void generateRepositories(Path remotesDirectory) throws Exception {
+        Map<String, String> repositoryRoots = repositoryRoots();
+        Path fixtureFile = remotesDirectory.resolve("fixture.txt");
+        String fixture = "repositories=" + repositories + " commits=" + commits + " authors=" + authors + " skew=" + skew
+                + " directories=" + directories + " seed=" + seed + "\n";
+
+        if (Files.exists(fixtureFile) && Files.readString(fixtureFile).equals(fixture)) {
+            System.out.println("Reusing the " + repositoryRoots.size() + " repositories of " + remotesDirectory);
+            return;
+        }
+
+        System.out.println("Generating " + repositoryRoots.size() + " repositories of " + commits + " commits on average in "
+                + remotesDirectory);
+        long start = System.nanoTime();
+        delete(remotesDirectory);
+        Files.createDirectories(remotesDirectory);
+        SyntheticRepositories.generate(remotesDirectory, repositoryRoots, commits * repositoryRoots.size(), authors, skew,
+                directories, seed);
+        Files.writeString(fixtureFile, fixture);
+        System.out.println("Generated in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    private static Measurement measure(List<String> command, Path directory, Path log)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+
+        long cpuTicks = -1;
+        long peakRssKilobytes = -1;
+        long peakTreeRssKilobytes = -1;
+        while (!process.waitFor(10, TimeUnit.MILLISECONDS)) {
+            cpuTicks = Math.max(cpuTicks, ProcFs.cpuTicks(process.pid()));
+            peakRssKilobytes = Math.max(peakRssKilobytes, ProcFs.status(process.pid(), "VmHWM"));
+
+            long treeRssKilobytes = ProcFs.status(process.pid(), "VmRSS");
+            for (ProcessHandle descendant : process.descendants().toList()) {
+                treeRssKilobytes += Math.max(0, ProcFs.status(descendant.pid(), "VmRSS"));
+            }
+            peakTreeRssKilobytes = Math.max(peakTreeRssKilobytes, treeRssKilobytes);
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("Error running get-contributors - exit code: " + process.exitValue()
+                    + " - see " + log);
+        }
+
+        return new Measurement(wallMillis, cpuTicks < 0 ? -1 : cpuTicks * 1000 / ProcFs.CLOCK_TICKS,
+                peakRssKilobytes < 0 ? -1 : peakRssKilobytes / 1024,
+                peakTreeRssKilobytes < 0 ? -1 : peakTreeRssKilobytes / 1024);
+    }
+
+    private static String format(long value) {
+        return value < 0 ? "n/a" : String.valueOf(value);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * @param cpuMillis -1 if not available, as the memory
+     */
+    private record Measurement(long wallMillis, long cpuMillis, long peakRssMegabytes, long peakTreeRssMegabytes) {
+    }
+
+    /**
+     * Reads the process statistics on Linux, the methods return -1 on the other systems or when the process is gone.
+     */
+    private static final class ProcFs {
+
+        private static final long CLOCK_TICKS = clockTicks();
+
+        /**
+         * @return the user and system CPU time of the process and of its terminated children, in clock ticks
+         */
+        private static long cpuTicks(long pid) {
+            try {
+                String stat = Files.readString(Path.of("/proc", String.valueOf(pid), "stat"));
+                // the fields following the command, which is between parentheses, start at the third field (state)
+                String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                return Long.parseLong(fields[11]) + Long.parseLong(fields[12]) + Long.parseLong(fields[13])
+                        + Long.parseLong(fields[14]);
+            } catch (IOException | RuntimeException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * @return the value of a field of {@code /proc/<pid>/status}, in kB for the memory fields
+         */
+        private static long status(long pid, String field) {
+            try {
+                for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                    if (line.startsWith(field + ":")) {
+                        return Long.parseLong(line.substring(field.length() + 1).trim().split("\\s+")[0]);
+                    }
+                }
+                return -1;
+            } catch (IOException | RuntimeException e) {
+                return -1;
+            }
+        }
+
+        private static long clockTicks() {
+            try {
+                Process process = new ProcessBuilder("getconf", "CLK_TCK").start();
+                String clockTicks = new String(process.getInputStream().readAllBytes()).trim();
+                process.waitFor();
+                return Long.parseLong(clockTicks);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                return 100;
+            }
+        }
+    }
+}
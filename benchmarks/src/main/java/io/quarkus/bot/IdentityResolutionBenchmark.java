@@ -0,0 +1,79 @@
+package io.quarkus.bot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.bot.GetContributors.Contribution;
+import io.quarkus.bot.GetContributors.ContributionAggregate;
+import io.quarkus.bot.GetContributors.RepositoryCommits;
+import io.quarkus.bot.GetContributors.RepositoryIds;
+
+/**
+ * Identity resolution of the commits of several repositories as for an output file: the aggregates of the
+ * repositories are merged, skipping the commits already counted, then the identities are resolved and compacted.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentityResolutionBenchmark {
+
+    @Param({ "200" })
+    int repositories;
+
+    @Param({ "1000000" })
+    int commits;
+
+    @Param({ "1000", "20000" })
+    int authors;
+
+    @Param({ "1.1" })
+    double skew;
+
+    private List<RepositoryCommits> repositoryCommits;
+
+    @Setup
+    public void setup() throws IOException {
+        repositoryCommits = new ArrayList<>();
+        for (byte[] log : SyntheticGitLog.generateRepositories(repositories, commits, authors, skew, 42)) {
+            repositoryCommits
+                    .add(GetContributors.countAuthorCommits(new ByteArrayInputStream(log), SyntheticGitLog.windows(1)));
+        }
+    }
+
+    /**
+     * The aggregates of the repositories only read the commits of the repositories so they can be built again at each
+     * invocation.
+     */
+    @Benchmark
+    public List<Contribution> resolveIdentities() {
+        return resolveIdentities(repositoryCommits);
+    }
+
+    static List<Contribution> resolveIdentities(List<RepositoryCommits> repositoryCommits) {
+        RepositoryIds repositoryIds = new RepositoryIds();
+        ContributionAggregate contributions = new ContributionAggregate(1);
+        for (int i = 0; i < repositoryCommits.size(); i++) {
+            contributions.merge(ContributionAggregate.of(repositoryIds.id("quarkiverse/repository-" + i),
+                    repositoryCommits.get(i), 1));
+        }
+        return contributions.identityResolver(0, repositoryIds).contributions();
+    }
+}
@@ -0,0 +1,58 @@
+package io.quarkus.bot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.bot.GetContributors.RepositoryCommits;
+
+/**
+ * Parsing of a {@code git log} output into commits per author and commit hashes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogParsingBenchmark {
+
+    @Param({ "100000", "1000000" })
+    int commits;
+
+    @Param({ "1000", "20000" })
+    int authors;
+
+    @Param({ "1.1" })
+    double skew;
+
+    @Param({ "1", "3" })
+    int windows;
+
+    private byte[] log;
+
+    private GetContributors.Windows logWindows;
+
+    @Setup
+    public void setup() {
+        log = SyntheticGitLog.generate(commits, authors, skew, 42);
+        logWindows = SyntheticGitLog.windows(windows);
+    }
+
+    @Benchmark
+    public RepositoryCommits countAuthorCommits() throws IOException {
+        return GetContributors.countAuthorCommits(new ByteArrayInputStream(log), logWindows);
+    }
+}
@@ -0,0 +1,319 @@
+package io.quarkus.bot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.quarkus.bot.JsonRouter.Request;
+import io.quarkus.bot.JsonRouter.Response;
+
+/**
+ * Serves the endpoints of the GitHub REST API used by the discovery of {@code GetContributors} from local repositories:
+ * <ul>
+ * <li>{@code GET /repos/<owner>/<name>}: the repositories of the directory, their clone URLs being {@code file://}
+ * URLs,</li>
+ * <li>{@code GET /search/repositories?q=org:<owner> topic:<topic>}: the repositories of an owner having a topic,
+ * paginated as GitHub does,</li>
+ * <li>{@code GET /rate_limit},</li>
+ * <li>{@code POST /graphql}: the {@code repository} and {@code search} queries of the GraphQL discovery, the search
+ * being paginated with cursors. A repository without {@code refs/heads/main} is empty: its {@code defaultBranchRef} is
+ * null.</li>
+ * </ul>
+ * The {@code GET} responses have an {@code ETag} and the conditional requests get {@code 304 Not Modified} responses
+ * when the response hasn't changed.
+ */
+public final class StubGitHubApi implements AutoCloseable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int RATE_LIMIT_REMAINING = 4999;
+
+    // a GraphQL string literal, escaped as a JSON string
+    private static final String GRAPHQL_STRING = "(\"(?:[^\"\\\\]|\\\\.)*\")";
+    private static final Pattern GRAPHQL_REPOSITORY = Pattern
+            .compile("(\\w+): repository\\(owner: " + GRAPHQL_STRING + ", name: " + GRAPHQL_STRING + "\\)");
+    private static final Pattern GRAPHQL_SEARCH = Pattern.compile("(\\w+): search\\(query: " + GRAPHQL_STRING
+            + ", type: REPOSITORY, first: (\\d+)(?:, after: " + GRAPHQL_STRING + ")?\\)");
+
+    private final StubRouter router = new StubRouter();
+    private final Path repositoriesDirectory;
+    private final Map<String, List<String>> topics;
+
+    private StubGitHubApi(Path repositoriesDirectory, Map<String, List<String>> topics) {
+        this.repositoriesDirectory = repositoriesDirectory;
+        this.topics = topics;
+        router.get("/rate_limit", request -> rateLimit())
+                .get("/repos/{owner}/{name}", this::repository)
+                .get("/search/repositories", this::search);
+    }
+
+    /**
+     * @param repositoriesDirectory the directory containing the repositories, in {@code <owner>/<name>}
+     * @param topics the full names of the repositories having each topic
+     */
+    public static StubGitHubApi start(int port, Path repositoriesDirectory, Map<String, List<String>> topics)
+            throws IOException {
+        StubGitHubApi api = new StubGitHubApi(repositoriesDirectory.toAbsolutePath(), topics);
+        api.router.start(new InetSocketAddress("127.0.0.1", port));
+        return api;
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + router.port();
+    }
+
+    public int requests() {
+        return router.requests.get();
+    }
+
+    public int notModifiedResponses() {
+        return router.notModifiedResponses.get();
+    }
+
+    @Override
+    public void close() {
+        router.stop();
+    }
+
+    /**
+     * Also routes {@code POST /graphql}, adds the rate limit headers to all the responses and handles the {@code ETag}
+     * of the {@code GET} responses.
+     */
+    private final class StubRouter extends JsonRouter {
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+        @Override
+        Response route(HttpExchange exchange) throws IOException {
+            if ("POST".equals(exchange.getRequestMethod()) && "/graphql".equals(exchange.getRequestURI().getPath())) {
+                return graphQL(new Request(exchange, Map.of(), Map.of()));
+            }
+            return super.route(exchange);
+        }
+
+        /**
+         * The headers of a response override the rate limit headers.
+         */
+        @Override
+        void send(HttpExchange exchange, Response response, byte[] body) throws IOException {
+            requests.incrementAndGet();
+            rateLimitHeaders().forEach(exchange.getResponseHeaders()::set);
+
+            if (response.status() == 200 && "GET".equals(exchange.getRequestMethod())) {
+                String etag = "\"" + GetContributors.sha256(body) + "\"";
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+
+            super.send(exchange, response, body);
+        }
+    }
+
+    private Map<String, String> rateLimitHeaders() {
+        return Map.of("X-RateLimit-Limit", "5000", "X-RateLimit-Remaining", String.valueOf(RATE_LIMIT_REMAINING),
+                "X-RateLimit-Reset", String.valueOf(rateLimitReset().getEpochSecond()));
+    }
+
+    private Response rateLimit() {
+        Map<String, Object> core = Map.of("limit", 5000, "remaining", RATE_LIMIT_REMAINING, "used",
+                5000 - RATE_LIMIT_REMAINING, "reset", rateLimitReset().getEpochSecond());
+        return new Response(200, Map.of("resources", Map.of("core", core), "rate", core));
+    }
+
+    private Response repository(Request request) {
+        String fullName = request.pathParameters().get("owner") + "/" + request.pathParameters().get("name");
+        if (!Files.isDirectory(repositoriesDirectory.resolve(fullName))) {
+            return Response.error(404, "Not Found");
+        }
+        return new Response(200, repository(fullName));
+    }
+
+    private Response search(Request request) {
+        Map<String, String> parameters = request.parameters();
+        List<String> matchingRepositories = search(parameters.getOrDefault("q", ""));
+
+        int pageSize = Math.min(MAX_PAGE_SIZE, Integer.parseInt(parameters.getOrDefault("per_page", "30")));
+        int page = Integer.parseInt(parameters.getOrDefault("page", "1"));
+        int lastPage = Math.max(1, (matchingRepositories.size() + pageSize - 1) / pageSize);
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = (page - 1) * pageSize; i < Math.min(page * pageSize, matchingRepositories.size()); i++) {
+            items.add(repository(matchingRepositories.get(i)));
+        }
+
+        Map<String, String> headers = Map.of();
+        if (page < lastPage) {
+            String pageUrl = "http://" + request.exchange().getRequestHeaders().getFirst("Host")
+                    + request.exchange().getRequestURI().getPath() + "?q="
+                    + URLEncoder.encode(parameters.getOrDefault("q", ""), StandardCharsets.UTF_8) + "&per_page="
+                    + pageSize + "&page=";
+            headers = Map.of("Link",
+                    "<" + pageUrl + (page + 1) + ">; rel=\"next\", <" + pageUrl + lastPage + ">; rel=\"last\"");
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total_count", matchingRepositories.size());
+        body.put("incomplete_results", false);
+        body.put("items", items);
+        return new Response(200, body, headers);
+    }
+
+    /**
+     * Answers the queries of the GraphQL discovery: each aliased {@code repository} and {@code search} field of the
+     * query is resolved, the other fields are ignored and the requested fields are always all returned.
+     */
+    private Response graphQL(Request request) throws IOException {
+        String query = OBJECT_MAPPER.readTree(request.exchange().getRequestBody()).path("query").asText();
+        Map<String, Object> data = new LinkedHashMap<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+
+        Matcher repositoryField = GRAPHQL_REPOSITORY.matcher(query);
+        while (repositoryField.find()) {
+            String fullName = string(repositoryField.group(2)) + "/" + string(repositoryField.group(3));
+            if (Files.isDirectory(repositoriesDirectory.resolve(fullName))) {
+                data.put(repositoryField.group(1), graphQLRepository(fullName));
+            } else {
+                data.put(repositoryField.group(1), null);
+                errors.add(Map.of("type", "NOT_FOUND", "path", List.of(repositoryField.group(1)), "message",
+                        "Could not resolve to a Repository with the name '" + fullName + "'."));
+            }
+        }
+
+        Matcher searchField = GRAPHQL_SEARCH.matcher(query);
+        while (searchField.find()) {
+            List<String> matchingRepositories = search(string(searchField.group(2)));
+            int pageSize = Math.min(MAX_PAGE_SIZE, Integer.parseInt(searchField.group(3)));
+            // the cursors are opaque for the clients, ours are the offset of the last returned repository
+            int start = searchField.group(4) != null
+                    ? Integer.parseInt(new String(Base64.getDecoder().decode(string(searchField.group(4))),
+                            StandardCharsets.UTF_8).substring("cursor:".length()))
+                    : 0;
+            int end = Math.min(start + pageSize, matchingRepositories.size());
+
+            List<Map<String, Object>> nodes = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                nodes.add(graphQLRepository(matchingRepositories.get(i)));
+            }
+            Map<String, Object> pageInfo = new LinkedHashMap<>();
+            pageInfo.put("hasNextPage", end < matchingRepositories.size());
+            pageInfo.put("endCursor", end > start
+                    ? Base64.getEncoder().encodeToString(("cursor:" + end).getBytes(StandardCharsets.UTF_8))
+                    : null);
+            data.put(searchField.group(1), Map.of("pageInfo", pageInfo, "nodes", nodes));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("data", data);
+        if (!errors.isEmpty()) {
+            body.put("errors", errors);
+        }
+        return new Response(200, body);
+    }
+
+    /**
+     * @return the full names of the repositories matching the {@code org:} and {@code topic:} qualifiers of a search,
+     *         sorted
+     */
+    private List<String> search(String query) {
+        String owner = null;
+        String topic = null;
+        for (String qualifier : query.split(" ")) {
+            if (qualifier.startsWith("org:")) {
+                owner = qualifier.substring("org:".length());
+            } else if (qualifier.startsWith("topic:")) {
+                topic = qualifier.substring("topic:".length());
+            }
+        }
+
+        List<String> matchingRepositories = new ArrayList<>();
+        for (String fullName : topics.getOrDefault(topic, List.of())) {
+            if (owner == null || fullName.startsWith(owner + "/")) {
+                matchingRepositories.add(fullName);
+            }
+        }
+        matchingRepositories.sort(null);
+        return matchingRepositories;
+    }
+
+    private Map<String, Object> repository(String fullName) {
+        String owner = fullName.substring(0, fullName.indexOf('/'));
+        String name = fullName.substring(fullName.indexOf('/') + 1);
+        String cloneUrl = repositoriesDirectory.resolve(fullName).toUri().toString();
+
+        Map<String, Object> repository = new LinkedHashMap<>();
+        repository.put("id", Math.abs(fullName.hashCode()));
+        repository.put("name", name);
+        repository.put("full_name", fullName);
+        repository.put("owner", Map.of("login", owner));
+        repository.put("private", false);
+        repository.put("ssh_url", cloneUrl);
+        repository.put("clone_url", cloneUrl);
+        repository.put("default_branch", "main");
+        repository.put("html_url", "https://github.com/" + fullName);
+        return repository;
+    }
+
+    private Map<String, Object> graphQLRepository(String fullName) {
+        Path directory = repositoriesDirectory.resolve(fullName);
+        boolean empty = !Files.exists(directory.resolve("refs/heads/main"))
+                && !packedRefs(directory).contains(" refs/heads/main\n");
+
+        Map<String, Object> repository = new LinkedHashMap<>();
+        repository.put("name", fullName.substring(fullName.indexOf('/') + 1));
+        repository.put("nameWithOwner", fullName);
+        repository.put("sshUrl", directory.toUri().toString());
+        repository.put("defaultBranchRef", empty ? null : Map.of("name", "main"));
+        return repository;
+    }
+
+    private static String packedRefs(Path repository) {
+        try {
+            Path packedRefs = repository.resolve("packed-refs");
+            return Files.exists(packedRefs) ? Files.readString(packedRefs) : "";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The rate limit is reset an hour after each response.
+     */
+    private Instant rateLimitReset() {
+        return Instant.now().plusSeconds(3600);
+    }
+
+    /**
+     * The GraphQL strings are escaped as the JSON ones.
+     */
+    private static String string(String literal) {
+        try {
+            return OBJECT_MAPPER.readValue(literal, String.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
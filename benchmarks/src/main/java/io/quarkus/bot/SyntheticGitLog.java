@@ -0,0 +1,173 @@
+package io.quarkus.bot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic {@code git log -z --format=%H%x00%an%x00%ae%x00%ct} outputs.
+ * <p>
+ * The commits are distributed among the authors following a Zipf distribution of exponent {@code skew}: with a high
+ * skew, a few authors make most of the commits, as in real repositories. The authors mix plain and noreply addresses,
+ * names that need to be transliterated by Junidecode, bots and authors committing under several names and emails.
+ * The commits are spread over the three years following {@link #FIRST_COMMIT_TIME}.
+ */
+public final class SyntheticGitLog {
+
+    private static final String[] FIRST_NAMES = { "Guillaume", "Georgios", "Sergey", "Clement", "Martin", "Ioannis",
+            "Stuart", "Alexey", "Yoann", "Phillip", "Jürgen", "José", "Zoë", "Łukasz", "Đorđe", "Søren", "Ömer", "Françoise",
+            "Björn", "Žofie", "Αλέξανδρος", "Дмитрий", "伟", "さくら" };
+
+    private static final String[] LAST_NAMES = { "Smet", "Andrianakis", "Beryozkin", "Escoffier", "Kouba", "Sotiriou",
+            "Douglas", "Loubyansky", "Rodière", "Krüger", "Müller", "Nowak", "Đoković", "Sørensen", "Yılmaz", "Dvořák",
+            "Παπαδόπουλος", "Иванов", "王", "佐藤" };
+
+    private static final String[] BOTS = { "dependabot[bot]", "github-actions[bot]", "quarkiversebot", "GitHub Action",
+            "Jenkins CI" };
+
+    /**
+     * 2020-01-01T00:00:00Z
+     */
+    public static final long FIRST_COMMIT_TIME = 1577836800L;
+
+    private static final long YEAR = 365L * 24 * 60 * 60;
+
+    private static final String[] DOMAINS = { "redhat.com", "gmail.com", "example.org", "ibm.com", "outlook.com" };
+
+    private SyntheticGitLog() {
+    }
+
+    /**
+     * @param commits the number of commits (lines) to generate
+     * @param authors the number of distinct contributors
+     * @param skew the exponent of the Zipf distribution of the commits among the contributors
+     * @param seed the seed of the generator, the same parameters and seed always give the same log
+     */
+    public static byte[] generate(int commits, int authors, double skew, long seed) {
+        return log(generateRecords(commits, authors, skew, seed));
+    }
+
+    /**
+     * Splits the commits of a generated log among {@code repositories} repositories.
+     */
+    public static byte[][] generateRepositories(int repositories, int commits, int authors, double skew, long seed) {
+        List<List<String>> repositoryRecords = generateRepositoryRecords(repositories, commits, authors, skew, seed);
+
+        byte[][] logs = new byte[repositories][];
+        for (int i = 0; i < repositories; i++) {
+            logs[i] = log(repositoryRecords.get(i));
+        }
+        return logs;
+    }
+
+    /**
+     * Splits the commits of a generated log among {@code repositories} repositories, each record being
+     * {@code hash\0name\0email\0time}.
+     */
+    static List<List<String>> generateRepositoryRecords(int repositories, int commits, int authors, double skew,
+            long seed) {
+        List<String> records = generateRecords(commits, authors, skew, seed);
+
+        List<List<String>> repositoryRecords = new ArrayList<>();
+        for (int i = 0; i < repositories; i++) {
+            repositoryRecords.add(new ArrayList<>());
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (String record : records) {
+            repositoryRecords.get(random.nextInt(repositories)).add(record);
+        }
+        return repositoryRecords;
+    }
+
+    /**
+     * Yearly windows starting at {@link #FIRST_COMMIT_TIME}.
+     */
+    static GetContributors.Windows windows(int count) {
+        List<Date> starts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            starts.add(new Date((FIRST_COMMIT_TIME + i * YEAR) * 1000));
+        }
+        return GetContributors.Windows.of(starts);
+    }
+
+    /**
+     * Each field is NUL terminated.
+     */
+    private static byte[] log(List<String> records) {
+        StringBuilder log = new StringBuilder();
+        for (String record : records) {
+            log.append(record).append('\0');
+        }
+        return log.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> generateRecords(int commits, int authors, double skew, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<String[]> identities = new ArrayList<>(authors);
+        for (int i = 0; i < authors; i++) {
+            identities.add(identities(i, random));
+        }
+
+        double[] cumulativeWeights = new double[authors];
+        double total = 0;
+        for (int i = 0; i < authors; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulativeWeights[i] = total;
+        }
+
+        List<String> records = new ArrayList<>(commits);
+        for (int i = 0; i < commits; i++) {
+            int author = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * total);
+            if (author < 0) {
+                author = Math.min(-author - 1, authors - 1);
+            }
+            String[] authorIdentities = identities.get(author);
+            records.add(hash(random) + "\0" + authorIdentities[random.nextInt(authorIdentities.length)] + "\0"
+                    + (FIRST_COMMIT_TIME + random.nextLong(3 * YEAR)));
+        }
+        return records;
+    }
+
+    /**
+     * Returns a random 40 hexadecimal digits commit hash.
+     */
+    private static String hash(SplittableRandom random) {
+        return String.format("%016x%016x%08x", random.nextLong(), random.nextLong(), random.nextInt());
+    }
+
+    /**
+     * Returns the {@code name\0email} identities a contributor commits with.
+     */
+    private static String[] identities(int index, SplittableRandom random) {
+        // 2% of bots
+        if (random.nextInt(50) == 0) {
+            String bot = BOTS[random.nextInt(BOTS.length)];
+            return new String[] { bot + "\0" + index + "+bot@users.noreply.github.com" };
+        }
+
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String name = firstName + " " + lastName + (index >= FIRST_NAMES.length * LAST_NAMES.length ? " " + index : "");
+        String login = "user" + index;
+        String email = login + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        String noReplyEmail = (100000 + index) + "+" + login + "@users.noreply.github.com";
+
+        int kind = random.nextInt(10);
+        if (kind < 5) {
+            // a single identity with a plain email
+            return new String[] { name + "\0" + email };
+        }
+        if (kind < 7) {
+            // a single identity with a noreply email
+            return new String[] { name + "\0" + noReplyEmail };
+        }
+        // aliasing: the same person commits with their name and login, with plain and noreply emails
+        return new String[] { name + "\0" + email, name + "\0" + noReplyEmail, login + "\0" + noReplyEmail,
+                name.toLowerCase(Locale.ROOT) + "\0" + email.toUpperCase(Locale.ROOT) };
+    }
+}
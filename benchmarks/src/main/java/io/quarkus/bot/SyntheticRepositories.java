@@ -0,0 +1,131 @@
+package io.quarkus.bot;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates local bare git repositories from the commits of {@link SyntheticGitLog}.
+ * <p>
+ * The commits of all the repositories are drawn from the same authors so that the identities are consolidated across
+ * the repositories as in the real organizations. Each commit changes a file of one of {@code directories} top level
+ * directories: for the repositories analyzed for a subdirectory, this subdirectory is one of them so that the path
+ * limited logs select about one commit out of {@code directories}.
+ */
+public final class SyntheticRepositories {
+
+    private static final int FILES_PER_DIRECTORY = 10;
+
+    private SyntheticRepositories() {
+    }
+
+    /**
+     * @param directory the directory in which the repositories are generated, in {@code <owner>/<name>}
+     * @param repositories the full names of the repositories and the root analyzed in each of them
+     * @param commits the total number of commits, split randomly among the repositories
+     * @param authors the number of distinct contributors
+     * @param skew the exponent of the Zipf distribution of the commits among the contributors
+     * @param directories the number of top level directories of the repositories
+     * @param seed the seed of the generator, the same parameters and seed always give the same repositories
+     */
+    public static void generate(Path directory, Map<String, String> repositories, int commits, int authors,
+            double skew, int directories, long seed) throws Exception {
+        List<String> fullNames = new ArrayList<>(repositories.keySet());
+        fullNames.sort(Comparator.naturalOrder());
+        List<List<String>> repositoryRecords = SyntheticGitLog.generateRepositoryRecords(fullNames.size(), commits,
+                authors, skew, seed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<?>> generations = new ArrayList<>();
+            for (int i = 0; i < fullNames.size(); i++) {
+                String fullName = fullNames.get(i);
+                List<String> records = repositoryRecords.get(i);
+                generations.add(executor.submit(() -> {
+                    generateRepository(directory.resolve(fullName), repositories.get(fullName), records, directories);
+                    return null;
+                }));
+            }
+            for (Future<?> generation : generations) {
+                generation.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void generateRepository(Path repository, String root, List<String> records, int directories)
+            throws IOException, InterruptedException {
+        Files.createDirectories(repository);
+        git(repository, "init", "-q", "--bare");
+        git(repository, "symbolic-ref", "HEAD", "refs/heads/main");
+        // the partial clones need the filters to be allowed on the remote side
+        git(repository, "config", "uploadpack.allowFilter", "true");
+
+        List<String> topLevelDirectories = new ArrayList<>();
+        if (!".".equals(root)) {
+            topLevelDirectories.add(root);
+        }
+        for (int i = topLevelDirectories.size(); i < directories; i++) {
+            topLevelDirectories.add("module-" + i);
+        }
+
+        // git log stops at the first commits older than --since so the commits have to be in chronological order
+        List<String[]> commits = new ArrayList<>(records.size());
+        for (String record : records) {
+            commits.add(record.split("\0"));
+        }
+        commits.sort(Comparator.comparingLong(commit -> Long.parseLong(commit[3])));
+
+        Process fastImport = new ProcessBuilder("git", "fast-import", "--quiet")
+                .directory(repository.toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try (OutputStream stream = new BufferedOutputStream(fastImport.getOutputStream())) {
+            for (int i = 0; i < commits.size(); i++) {
+                String[] commit = commits.get(i);
+                String path = topLevelDirectories.get(i % topLevelDirectories.size()) + "/file-"
+                        + (i / topLevelDirectories.size()) % FILES_PER_DIRECTORY + ".txt";
+                String content = i + "\n";
+                String identity = commit[1] + " <" + commit[2] + "> " + commit[3] + " +0000\n";
+                stream.write(("commit refs/heads/main\n"
+                        + "author " + identity
+                        + "committer " + identity
+                        + "data 0\n"
+                        + "M 644 inline " + path + "\n"
+                        + "data " + content.length() + "\n" + content + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int exitCode = fastImport.waitFor();
+        if (exitCode > 0) {
+            throw new IllegalStateException("Error generating " + repository + " - exit code: " + exitCode);
+        }
+    }
+
+    private static void git(Path repository, String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command)
+                .directory(repository.toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode > 0) {
+            throw new IllegalStateException("Error running " + command + " in " + repository + " - exit code: " + exitCode);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.quarkus.bot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.quarkus.bot.GetContributors.Contribution;
+import io.quarkus.bot.GetContributors.ContributionWriter;
+import io.quarkus.bot.GetContributors.RepositoryIds;
+
+/**
+ * Compact binary snapshot of the contributions that can be loaded back with {@link #read(Path)}.
+ * <p>
+ * The file starts with a magic number and a version. Each contribution is then prefixed by a {@code 1} byte and the
+ * file ends with a {@code 0} byte. The repositories are interned: a repository name is only written the first time
+ * it appears, it is then referenced by its index.
+ * <p>
+ * The strings are written as their UTF-8 length followed by their UTF-8 bytes: unlike
+ * {@link DataOutputStream#writeUTF(String)}, their length is not limited to 65535 bytes. The version 1 snapshots, whose
+ * strings were written with {@code writeUTF()}, can still be read.
+ */
+public final class BinarySnapshot {
+
+    private static final int MAGIC = 0x47434e54;
+    private static final int VERSION = 2;
+    private static final int MODIFIED_UTF8_VERSION = 1;
+
+    private BinarySnapshot() {
+    }
+
+    public static List<Contribution> read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IllegalStateException(file + " is not a contributions snapshot");
+            }
+            int version = input.readInt();
+            if (version != VERSION && version != MODIFIED_UTF8_VERSION) {
+                throw new IllegalStateException("Unsupported snapshot version " + version + " for " + file);
+            }
+
+            // the repositories are interned in the order in which they appear so the ids are the indexes of the file
+            RepositoryIds repositoryIds = new RepositoryIds();
+            int repositoryCount = 0;
+            List<Contribution> contributions = new ArrayList<>();
+            while (input.readBoolean()) {
+                String author = readString(input, version);
+                String email = readString(input, version);
+                String username = readString(input, version);
+                int commits = input.readInt();
+                int contributionRepositoryCount = input.readInt();
+                BitSet contributionRepositories = new BitSet();
+                for (int i = 0; i < contributionRepositoryCount; i++) {
+                    int repositoryIndex = input.readInt();
+                    if (repositoryIndex == repositoryCount) {
+                        repositoryIds.id(readString(input, version));
+                        repositoryCount++;
+                    }
+                    contributionRepositories.set(repositoryIndex);
+                }
+                contributions.add(new Contribution(author, email, username, commits, contributionRepositories,
+                        repositoryIds));
+            }
+            return contributions;
+        }
+    }
+
+    private static String readString(DataInputStream input, int version) throws IOException {
+        if (version == MODIFIED_UTF8_VERSION) {
+            return input.readUTF();
+        }
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static class Writer implements ContributionWriter {
+
+        private final DataOutputStream output;
+        private final Map<String, Integer> repositories = new HashMap<>();
+
+        Writer(Path file) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+        }
+
+        @Override
+        public void write(Contribution contribution) throws IOException {
+            output.writeBoolean(true);
+            writeString(contribution.author);
+            writeString(contribution.email);
+            writeString(contribution.username);
+            output.writeInt(contribution.commits);
+            List<String> repositoryNames = contribution.repositoryNames();
+            output.writeInt(repositoryNames.size());
+            for (String repository : repositoryNames) {
+                Integer repositoryIndex = repositories.get(repository);
+                if (repositoryIndex == null) {
+                    output.writeInt(repositories.size());
+                    writeString(repository);
+                    repositories.put(repository, repositories.size());
+                } else {
+                    output.writeInt(repositoryIndex);
+                }
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.writeBoolean(false);
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package io.quarkus.bot;
+
+import static io.quarkus.bot.GetContributors.OBJECT_MAPPER;
+import static io.quarkus.bot.GetContributors.sha256;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.quarkus.bot.GetContributors.GitHubUsage;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+/**
+ * Caches the responses of the GitHub API on disk and revalidates them with conditional requests.
+ * <p>
+ * GitHub doesn't count the {@code 304 Not Modified} responses against the rate limit so unchanged
+ * repository lists and metadata don't cost anything.
+ */
+class CachingGitHubConnector implements GitHubConnector {
+
+    private static final String ETAG = "ETag";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    private final GitHubConnector delegate;
+    private final Path directory;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    // the core rate limit, as of the last response
+    private volatile int rateLimit = -1;
+    private volatile int rateLimitRemaining = -1;
+    private volatile Instant rateLimitReset;
+
+    CachingGitHubConnector(GitHubConnector delegate, Path directory) throws IOException {
+        this.delegate = delegate;
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest request) throws IOException {
+        if (!"GET".equals(request.method())) {
+            return delegate.send(request);
+        }
+
+        Path cachedResponseFile = directory
+                .resolve(sha256(request.url().toString().getBytes(StandardCharsets.UTF_8)) + ".json");
+        CachedResponse cachedResponse = Files.exists(cachedResponseFile)
+                ? OBJECT_MAPPER.readValue(cachedResponseFile.toFile(), CachedResponse.class)
+                : null;
+
+        GitHubConnectorResponse response = delegate.send(cachedResponse != null
+                ? new ConditionalRequest(request, cachedResponse.etag())
+                : request);
+        requests.incrementAndGet();
+        updateRateLimit(response);
+
+        if (cachedResponse != null && response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            notModifiedResponses.incrementAndGet();
+
+            // we keep the fresh headers as they contain the rate limit information
+            Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(cachedResponse.headers());
+            headers.putAll(cleanHeaders(response.allHeaders()));
+            response.close();
+
+            return new CachedGitHubConnectorResponse(request, HttpURLConnection.HTTP_OK, headers,
+                    cachedResponse.body());
+        }
+
+        if (response.statusCode() == HttpURLConnection.HTTP_OK && response.header(ETAG) != null) {
+            byte[] body;
+            try (InputStream bodyStream = response.bodyStream()) {
+                body = bodyStream.readAllBytes();
+            }
+            Map<String, List<String>> headers = cleanHeaders(response.allHeaders());
+            response.close();
+
+            Path temporaryFile = Files.createTempFile(directory, "response", ".tmp");
+            OBJECT_MAPPER.writeValue(temporaryFile.toFile(),
+                    new CachedResponse(response.header(ETAG), headers, body));
+            Files.move(temporaryFile, cachedResponseFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            return new CachedGitHubConnectorResponse(request, HttpURLConnection.HTTP_OK, headers, body);
+        }
+
+        return response;
+    }
+
+    GitHubUsage usage() {
+        return new GitHubUsage(requests.get(), notModifiedResponses.get(), rateLimit, rateLimitRemaining,
+                rateLimitReset != null ? rateLimitReset.toString() : null);
+    }
+
+    /**
+     * The {@code 304 Not Modified} responses also have the rate limit headers, the search requests have their own
+     * rate limit.
+     */
+    private void updateRateLimit(GitHubConnectorResponse response) {
+        String resource = response.header("X-RateLimit-Resource");
+        if (resource != null && !"core".equals(resource)) {
+            return;
+        }
+        String limit = response.header("X-RateLimit-Limit");
+        String remaining = response.header("X-RateLimit-Remaining");
+        String reset = response.header("X-RateLimit-Reset");
+        if (limit == null || remaining == null || reset == null) {
+            return;
+        }
+        rateLimit = Integer.parseInt(limit);
+        rateLimitRemaining = Integer.parseInt(remaining);
+        rateLimitReset = Instant.ofEpochSecond(Long.parseLong(reset));
+    }
+
+    /**
+     * The bodies are stored decoded and the status line doesn't have a name.
+     */
+    private static Map<String, List<String>> cleanHeaders(Map<String, List<String>> headers) {
+        Map<String, List<String>> cleanHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() == null || "Content-Encoding".equalsIgnoreCase(header.getKey())
+                    || "Content-Length".equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
+            cleanHeaders.put(header.getKey(), header.getValue());
+        }
+        return cleanHeaders;
+    }
+
+    @RegisterForReflection
+    record CachedResponse(String etag, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    private static class ConditionalRequest implements GitHubConnectorRequest {
+
+        private final GitHubConnectorRequest request;
+        private final Map<String, List<String>> headers;
+
+        private ConditionalRequest(GitHubConnectorRequest request, String etag) {
+            this.request = request;
+            this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            this.headers.putAll(request.allHeaders());
+            this.headers.put(IF_NONE_MATCH, List.of(etag));
+        }
+
+        @Override
+        public String method() {
+            return request.method();
+        }
+
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return headers;
+        }
+
+        @Override
+        public String header(String name) {
+            List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        @Override
+        public String contentType() {
+            return request.contentType();
+        }
+
+        @Override
+        public InputStream body() {
+            return request.body();
+        }
+
+        @Override
+        public URL url() {
+            return request.url();
+        }
+
+        @Override
+        public boolean hasBody() {
+            return request.hasBody();
+        }
+    }
+
+    private static class CachedGitHubConnectorResponse extends GitHubConnectorResponse {
+
+        private final byte[] body;
+
+        private CachedGitHubConnectorResponse(GitHubConnectorRequest request, int statusCode,
+                Map<String, List<String>> headers, byte[] body) {
+            super(request, statusCode, headers);
+            this.body = body;
+        }
+
+        @Override
+        public InputStream bodyStream() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.quarkus.bot;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+
+import io.quarkus.bot.GetContributors.ContributorIndex;
+import io.quarkus.bot.GetContributors.Contributors;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Serves the contributors of the last refresh as JSON over HTTP.
+ * <p>
+ * The queries only read the current index so they are never blocked by a refresh, a failed refresh keeps the
+ * previous contributors.
+ */
+final class ContributorService {
+
+    private final JsonRouter router = new JsonRouter();
+
+    private volatile ContributorIndex index;
+    private volatile String lastError;
+
+    private ContributorService() {
+        router.get("/status", request -> status())
+                .get("/contributors", contributors(ContributorService::top))
+                .get("/contributors/by-email/{email}", contributors(ContributorService::byEmail))
+                .get("/contributors/by-username/{username}", contributors(ContributorService::byUsername))
+                .get("/repositories/{owner}/{name}/contributors", contributors(ContributorService::byRepository));
+    }
+
+    static ContributorService start(int port) throws IOException {
+        ContributorService service = new ContributorService();
+        service.router.start(new InetSocketAddress(port));
+        return service;
+    }
+
+    void refresh(Callable<ContributorIndex> refresher) {
+        try {
+            index = refresher.call();
+            lastError = null;
+        } catch (Exception e) {
+            lastError = e.toString();
+            System.err.println("Error refreshing the contributors: " + e.getMessage());
+        }
+    }
+
+    void stop() {
+        router.stop();
+    }
+
+    private JsonRouter.Response status() {
+        ContributorIndex index = this.index;
+        return new JsonRouter.Response(200, new ServiceStatus(index != null ? index.refreshedAt() : null,
+                index != null ? index.refreshMillis() : null, index != null ? index.windows() : List.of(),
+                index != null ? index.categories() : List.of(), lastError));
+    }
+
+    private static JsonRouter.Response top(JsonRouter.Request request, Contributors contributors) {
+        String top = request.parameters().get("top");
+        if (top == null) {
+            return new JsonRouter.Response(200, contributors.all());
+        }
+        try {
+            return new JsonRouter.Response(200, contributors.top(Math.max(0, Integer.parseInt(top))));
+        } catch (NumberFormatException e) {
+            return JsonRouter.Response.error(400, "Invalid top " + top);
+        }
+    }
+
+    private static JsonRouter.Response byEmail(JsonRouter.Request request, Contributors contributors) {
+        String email = request.pathParameters().get("email");
+        return JsonRouter.Response.ofNullable(contributors.byEmail(email), "No contributor with email " + email);
+    }
+
+    private static JsonRouter.Response byUsername(JsonRouter.Request request, Contributors contributors) {
+        String username = request.pathParameters().get("username");
+        return JsonRouter.Response.ofNullable(contributors.byUsername(username),
+                "No contributor with username " + username);
+    }
+
+    private static JsonRouter.Response byRepository(JsonRouter.Request request, Contributors contributors) {
+        return new JsonRouter.Response(200, contributors.byRepository(
+                request.pathParameters().get("owner") + "/" + request.pathParameters().get("name")));
+    }
+
+    /**
+     * Resolves the contributors of the window and category of the request before querying them.
+     */
+    private JsonRouter.RequestHandler contributors(
+            BiFunction<JsonRouter.Request, Contributors, JsonRouter.Response> query) {
+        return request -> {
+            ContributorIndex index = this.index;
+            if (index == null) {
+                return JsonRouter.Response.error(503, "The contributors are being analyzed, please retry later");
+            }
+
+            String since = request.parameters().get("since");
+            if (since != null && !index.windows().contains(since)) {
+                return JsonRouter.Response.error(400,
+                        "Unknown window " + since + ", the windows are " + index.windows());
+            }
+            String category = request.parameters().getOrDefault("category", "all");
+            Contributors contributors = index.contributors(since, category);
+            if (contributors == null) {
+                return JsonRouter.Response.error(400,
+                        "Unknown category " + category + ", the categories are " + index.categories());
+            }
+            return query.apply(request, contributors);
+        };
+    }
+
+    @RegisterForReflection
+    record ServiceStatus(String refreshedAt, Long refreshMillis, List<String> windows, List<String> categories,
+            String lastError) {
+    }
+}
@@ -3,51 +3,122 @@
 //DEPS io.quarkus:quarkus-picocli
 //DEPS io.quarkiverse.githubapi:quarkus-github-api:1.314.1
 //DEPS net.gcardone.junidecode:junidecode:0.4.1
+//DEPS io.micrometer:micrometer-registry-prometheus
+//SOURCES BinarySnapshot.java
+//SOURCES CachingGitHubConnector.java
+//SOURCES ContributorService.java
+//SOURCES GraphQLClient.java
+//SOURCES GraphQLDiscovery.java
+//SOURCES JsonRouter.java
+//SOURCES RateLimitScheduler.java
 
 //JAVAC_OPTIONS -parameters
 //JAVA_OPTIONS -Djava.util.logging.manager=org.jboss.logmanager.LogManager
 
 //Q:CONFIG quarkus.log.level=SEVERE
 //Q:CONFIG quarkus.banner.enabled=false
+//Q:CONFIG quarkus.ssl.native=true
+//Q:CONFIG quarkus.native.additional-build-args=--initialize-at-build-time=net.gcardone.junidecode
 package io.quarkus.bot;
 
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URL;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 
 import org.kohsuke.github.GHDirection;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.connector.GitHubConnector;
 
 import net.gcardone.junidecode.Junidecode;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
 
+// picocli looks up Duration.parse() reflectively to convert the durations
+@RegisterForReflection(targets = Duration.class)
 @Command(name = "get-contributors", mixinStandardHelpOptions = true)
 public class GetContributors implements Callable<Integer> {
 
     private static final Path CLONE_DIRECTORY = Path.of("get-contributors-repositories");
-    private static final Path QUARKUS_CONTRIBUTORS_FILE = Path.of("contributors-quarkus.csv");
-    private static final Path QUARKIVERSE_CONTRIBUTORS_FILE = Path.of("contributors-quarkiverse.csv");
-    private static final Path PLATFORM_CONTRIBUTORS_FILE = Path.of("contributors-platform.csv");
-    private static final Path WEBSITE_TRANSLATIONS_CONTRIBUTORS_FILE = Path.of("contributors-website-translations.csv");
-    private static final Path ALL_CONTRIBUTORS_FILE = Path.of("contributors-all.csv");
-
-    private static final Map<String, String> PLATFORM_PROJECTS = Map.ofEntries(
+    private static final Path CHECKPOINTS_FILE = CLONE_DIRECTORY.resolve("checkpoints.json");
+    // GitHub owners can't contain a dot so it can't collide with the clones
+    private static final Path SHARED_OBJECTS_DIRECTORY = CLONE_DIRECTORY.resolve("shared-objects.git");
+    private static final Path CACHE_DIRECTORY = Path.of("get-contributors-cache");
+    private static final Path REPOSITORIES_FILE = CACHE_DIRECTORY.resolve("repositories.json");
+    private static final Path GITHUB_CACHE_DIRECTORY = CACHE_DIRECTORY.resolve("github");
+    private static final String QUARKUS_CONTRIBUTORS_FILE = "contributors-quarkus";
+    private static final String QUARKIVERSE_CONTRIBUTORS_FILE = "contributors-quarkiverse";
+    private static final String PLATFORM_CONTRIBUTORS_FILE = "contributors-platform";
+    private static final String WEBSITE_TRANSLATIONS_CONTRIBUTORS_FILE = "contributors-website-translations";
+    private static final String ALL_CONTRIBUTORS_FILE = "contributors-all";
+
+    // the end-to-end benchmark generates these repositories
+    static final Map<String, String> PLATFORM_PROJECTS = Map.ofEntries(
             Map.entry("quarkusio/quarkus-platform", "."),
             Map.entry("apache/camel-quarkus", "."),
             Map.entry("kiegroup/kogito-runtimes", "quarkus"),
@@ -61,296 +132,2249 @@ public class GetContributors implements Callable<Integer> {
             Map.entry("quarkiverse/quarkus-amazon-services", "."),
             Map.entry("quarkiverse/quarkus-config-extensions", "consul"));
 
-    private static final Set<String> IGNORE_SET = Set.of("GitHub Action", "GitHub", "debezium-builder", "Debezium Builder",
-            "bsig-cloud gh bot", "Jenkins CI", "kie-ci", "Ubuntu", "quarkiversebot");
+    private static final Set<String> IGNORE_SET = Set.of("GitHub Action", "GitHub", "debezium-builder", "Debezium Builder",
+            "bsig-cloud gh bot", "Jenkins CI", "kie-ci", "Ubuntu", "quarkiversebot");
+
+    private static final String BOT = "[bot]";
+
+    private static final String NO_REPLY = "@users.noreply.github.com";
+    private static final String GITHUB_TOKEN = "GITHUB_TOKEN";
+
+    private static final Duration SHALLOW_SINCE_MARGIN = Duration.ofDays(30);
+
+    private static final String NO_COMMITS_SELECTED_FOR_SHALLOW = "no commits selected for shallow requests";
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd")
+            .withZone(ZoneId.systemDefault());
+
+    @Option(names = "--since", paramLabel = "<since>", split = ",", description = "Date from which we consider the contributions, several dates can be given to generate one set of files per window in a single pass")
+    List<Date> since;
+
+    @Option(names = { "--main-repository-branch" }, paramLabel = "<mainRepositoryBranch>", description = "Branch of the main repository in which we consider the contributions", defaultValue = "main")
+    String mainRepositoryBranch;
+
+    @Option(names = "--sort", defaultValue = "name")
+    Sort sort;
+
+    @Option(names = "--output-format", paramLabel = "<outputFormat>", description = "Format of the generated files: ${COMPLETION-CANDIDATES}", defaultValue = "csv")
+    OutputFormat outputFormat;
+
+    @Option(names = "--clone-strategy", paramLabel = "<cloneStrategy>", description = "How the repositories are cloned: ${COMPLETION-CANDIDATES}", defaultValue = "full")
+    CloneStrategy cloneStrategy;
+
+    @Option(names = "--commit-graph", paramLabel = "<commitGraph>", description = "Whether the clones analyzed for a subdirectory get a commit-graph with changed-path Bloom filters: ${COMPLETION-CANDIDATES}", defaultValue = "off")
+    CommitGraph commitGraph;
+
+    @Option(names = "--incremental", description = "Only analyze the commits added since the previous run when possible")
+    boolean incremental;
+
+    @Option(names = "--discovery", paramLabel = "<discovery>", description = "How the repositories are discovered: ${COMPLETION-CANDIDATES}", defaultValue = "rest")
+    Discovery discovery;
+
+    @Option(names = "--github-api-url", paramLabel = "<githubApiUrl>", description = "URL of the GitHub API", defaultValue = "https://api.github.com")
+    String githubApiUrl;
+
+    @Option(names = "--offline", description = "Run from the repositories discovered by the previous run and the existing clones, without accessing the network")
+    boolean offline;
+
+    @Option(names = "--parallelism", paramLabel = "<parallelism>", description = "Number of repositories cloned and analyzed concurrently", defaultValue = "1")
+    int parallelism;
+
+    @Spec
+    CommandSpec spec;
+
+    @Option(names = "--shared-objects", description = "Store the objects common to several repositories once, in a repository the clones borrow their objects from")
+    boolean sharedObjects;
+
+    @Option(names = "--report", paramLabel = "<report>", description = "JSON file in which the timings and volumes of the run are reported", defaultValue = "get-contributors-report.json")
+    Path report;
+
+    @Option(names = "--metrics", paramLabel = "<metrics>", description = "File in which the timings and volumes of the run are exported as Prometheus metrics")
+    Path metrics;
+
+    @Option(names = "--serve", description = "Keep running: serve the contributors over HTTP and refresh them in the background")
+    boolean serve;
+
+    @Option(names = "--port", paramLabel = "<port>", description = "Port on which the contributors are served", defaultValue = "8080")
+    int port;
+
+    @Option(names = "--refresh-interval", paramLabel = "<refreshInterval>", description = "Delay between the end of a refresh of the served contributors and the start of the next one, as an ISO-8601 duration", defaultValue = "PT6H")
+    Duration refreshInterval;
+
+    // the state of a run, each refresh of the service is a new run
+    private RunReport runReport;
+
+    private Windows windows;
+
+    private RepositoryIds repositoryIds;
+
+    @Override
+    public Integer call() throws Exception {
+        if (parallelism < 1) {
+            throw new ParameterException(spec.commandLine(),
+                    "Invalid value '" + parallelism + "' for option '--parallelism': it must be at least 1");
+        }
+
+        // the alternates of partial and shallow clones are not reliable
+        if (sharedObjects && cloneStrategy != CloneStrategy.full) {
+            throw new ParameterException(spec.commandLine(),
+                    "--shared-objects can't be used with partial clones, please use --clone-strategy " + CloneStrategy.full);
+        }
+
+        if (discovery == Discovery.graphql && !offline && System.getenv(GITHUB_TOKEN) == null) {
+            throw new ParameterException(spec.commandLine(), "--discovery " + Discovery.graphql
+                    + " requires a token, please define the " + GITHUB_TOKEN + " environment variable");
+        }
+
+        try {
+            windows = Windows.of(since);
+        } catch (IllegalArgumentException e) {
+            throw new ParameterException(spec.commandLine(), e.getMessage());
+        }
+
+        if (!serve) {
+            run();
+            return 0;
+        }
+
+        ContributorService service = ContributorService.start(port);
+        System.out.println("Serving the contributors on port " + port);
+
+        // the refreshes are sequential: a refresh starts once the previous one is done
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.scheduleWithFixedDelay(() -> service.refresh(this::run), 0, refreshInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+            Quarkus.waitForExit();
+        } finally {
+            scheduler.shutdownNow();
+            service.stop();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Discovers and analyzes the repositories, then writes the contributors.
+     *
+     * @return the contributors, indexed for the service
+     */
+    private ContributorIndex run() throws Exception {
+        runReport = new RunReport();
+        repositoryIds = new RepositoryIds();
+
+        // the clones are kept from one run to another and updated incrementally
+        Files.createDirectories(CLONE_DIRECTORY);
+        Files.createDirectories(CACHE_DIRECTORY);
+        for (String fileName : List.of(QUARKUS_CONTRIBUTORS_FILE, QUARKIVERSE_CONTRIBUTORS_FILE, PLATFORM_CONTRIBUTORS_FILE,
+                WEBSITE_TRANSLATIONS_CONTRIBUTORS_FILE, ALL_CONTRIBUTORS_FILE)) {
+            // the previous runs might have had other windows
+            Files.deleteIfExists(outputFormat.file(fileName));
+            try (DirectoryStream<Path> windowFiles = Files.newDirectoryStream(Path.of("."),
+                    outputFormat.file(fileName + "-since-*").toString())) {
+                for (Path windowFile : windowFiles) {
+                    Files.delete(windowFile);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        runReport.startedAt = Instant.now().toString();
+
+        DiscoveredRepositories repositories;
+        if (offline) {
+            repositories = DiscoveredRepositories.load(REPOSITORIES_FILE);
+        } else if (discovery == Discovery.graphql) {
+            GraphQLClient client = new GraphQLClient(githubApiUrl, System.getenv(GITHUB_TOKEN), new RateLimitScheduler());
+
+            repositories = new GraphQLDiscovery(client).discover();
+            repositories.save(REPOSITORIES_FILE);
+
+            runReport.github = client.usage();
+        } else {
+            CachingGitHubConnector connector = new CachingGitHubConnector(GitHubConnector.DEFAULT, GITHUB_CACHE_DIRECTORY);
+            final GitHub github = new GitHubBuilder()
+                    .withEndpoint(githubApiUrl)
+                    .withConnector(connector)
+                    .build();
+
+            repositories = discoverRepositories(github);
+            repositories.save(REPOSITORIES_FILE);
+
+            runReport.github = connector.usage();
+        }
+        runReport.discoveryMillis = millisSince(start);
+
+        Checkpoints checkpoints = incremental ? Checkpoints.load(CHECKPOINTS_FILE) : null;
+
+        SharedObjects objects = sharedObjects ? SharedObjects.init(SHARED_OBJECTS_DIRECTORY, offline) : null;
+
+        long analysisStart = System.nanoTime();
+        ContributorIndex.Builder index = new ContributorIndex.Builder(windows);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            analyze(repositories, new RepositoryAnalyzer(executor, windows, cloneStrategy, commitGraph, checkpoints, objects,
+                    offline, runReport), index);
+        } finally {
+            executor.shutdownNow();
+            // when an analysis fails, the other ones might be blocked on git processes that the interruption doesn't stop
+            do {
+                ProcessHandle.current().descendants().forEach(ProcessHandle::destroy);
+            } while (!executor.awaitTermination(1, TimeUnit.SECONDS));
+        }
+        runReport.analysisMillis = millisSince(analysisStart);
+
+        if (checkpoints != null) {
+            checkpoints.save();
+        }
+
+        runReport.totalMillis = millisSince(start);
+        runReport.write(report);
+        if (metrics != null) {
+            runReport.writeMetrics(metrics);
+        }
+        runReport.printCommitGraphSpeedups();
+        runReport.printSlowestRepositories(5);
+
+        return index.build(runReport.startedAt, runReport.totalMillis);
+    }
+
+    private DiscoveredRepositories discoverRepositories(GitHub github) throws IOException {
+        Repository quarkus = Repository.of(github.getRepository("quarkusio/quarkus"));
+
+        // Get Quarkiverse repositories
+        List<Repository> quarkiverseExtensions = github.searchRepositories()
+                .org("quarkiverse")
+                .topic("quarkus-extension")
+                .order(GHDirection.ASC)
+                .list().withPageSize(200).toList()
+                .stream().map(Repository::of).toList();
+
+        // Get platform projects repositories
+        // the iteration order of Map.ofEntries() changes from one run to another so we sort the projects
+        List<Repository> platformProjects = new ArrayList<>();
+        for (String platformProject : new TreeSet<>(PLATFORM_PROJECTS.keySet())) {
+            platformProjects.add(Repository.of(github.getRepository(platformProject)));
+        }
+
+        // Get website translations repositories
+        List<Repository> websiteTranslationsRepositories = github.searchRepositories()
+                .org("quarkusio")
+                .topic("translation")
+                .order(GHDirection.ASC)
+                .list().withPageSize(200).toList()
+                .stream().map(Repository::of).toList();
+
+        return new DiscoveredRepositories(quarkus, quarkiverseExtensions, platformProjects, websiteTranslationsRepositories);
+    }
+
+    private void analyze(DiscoveredRepositories repositories, RepositoryAnalyzer analyzer, ContributorIndex.Builder index)
+            throws Exception {
+        // all the analyses are registered first so that the clones and logs run concurrently,
+        // the contributions are then consumed in submission order so that the output is deterministic
+        RepositoryAnalysis quarkusAnalysis = analyzer.analyzeRepository(repositories.quarkus(), ".", mainRepositoryBranch);
+
+        List<RepositoryAnalysis> quarkiverseAnalyses = new ArrayList<>();
+        for (Repository quarkiverseExtension : repositories.quarkiverseExtensions()) {
+            quarkiverseAnalyses.add(analyzer.analyzeRepository(quarkiverseExtension, ".", "main"));
+        }
+
+        List<RepositoryAnalysis> platformAnalyses = new ArrayList<>();
+        for (Repository platformProject : repositories.platformProjects()) {
+            platformAnalyses.add(analyzer.analyzeRepository(platformProject,
+                    PLATFORM_PROJECTS.getOrDefault(platformProject.fullName(), "."), "main"));
+        }
+
+        List<RepositoryAnalysis> websiteTranslationsAnalyses = new ArrayList<>();
+        for (Repository websiteTranslationsRepository : repositories.websiteTranslationsRepositories()) {
+            websiteTranslationsAnalyses.add(analyzer.analyzeRepository(websiteTranslationsRepository, ".", "main"));
+        }
+
+        analyzer.start();
+
+        System.out.println("Analyzing Quarkus main repository");
+
+        ContributionAggregate quarkusContributions = new ContributionAggregate(windows.size());
+
+        merge(quarkusAnalysis, quarkusContributions);
+
+        writeContributions(quarkusContributions, QUARKUS_CONTRIBUTORS_FILE, index);
+
+        ContributionAggregate quarkiverseContributions = new ContributionAggregate(windows.size());
+
+        System.out.println("");
+        System.out.println("Analyzing " + quarkiverseAnalyses.size() + " Quarkiverse repositories");
+
+        for (RepositoryAnalysis quarkiverseAnalysis : quarkiverseAnalyses) {
+            merge(quarkiverseAnalysis, quarkiverseContributions);
+        }
+
+        writeContributions(quarkiverseContributions, QUARKIVERSE_CONTRIBUTORS_FILE, index);
+
+        System.out.println("");
+        System.out.println("Analyzing " + platformAnalyses.size() + " Platform repositories");
+
+        ContributionAggregate platformContributions = new ContributionAggregate(windows.size());
+
+        for (RepositoryAnalysis platformAnalysis : platformAnalyses) {
+            merge(platformAnalysis, platformContributions);
+        }
+
+        writeContributions(platformContributions, PLATFORM_CONTRIBUTORS_FILE, index);
+
+        ContributionAggregate websiteTranslationsContributions = new ContributionAggregate(windows.size());
+
+        System.out.println("");
+        System.out.println("Analyzing " + websiteTranslationsAnalyses.size() + " website translations repositories");
+
+        for (RepositoryAnalysis websiteTranslationsAnalysis : websiteTranslationsAnalyses) {
+            merge(websiteTranslationsAnalysis, websiteTranslationsContributions);
+        }
+
+        writeContributions(websiteTranslationsContributions, WEBSITE_TRANSLATIONS_CONTRIBUTORS_FILE, index);
+
+        // the contributions of all the repositories are derived from the ones of the categories
+        ContributionAggregate allContributions = new ContributionAggregate(windows.size());
+        allContributions.merge(quarkusContributions);
+        allContributions.merge(quarkiverseContributions);
+        allContributions.merge(platformContributions);
+        allContributions.merge(websiteTranslationsContributions);
+
+        writeContributions(allContributions, ALL_CONTRIBUTORS_FILE, index);
+    }
+
+    private static class RepositoryAnalyzer {
+
+        private final ExecutorService executor;
+        private final Windows windows;
+        private final CloneStrategy cloneStrategy;
+        private final CommitGraph commitGraph;
+        private final Checkpoints checkpoints;
+        private final SharedObjects sharedObjects;
+        private final boolean offline;
+        private final RunReport runReport;
+
+        /**
+         * The clones used by the analyses, with all the roots analyzed in each of them.
+         */
+        private final Map<Path, Clone> clones = new HashMap<>();
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        private RepositoryAnalyzer(ExecutorService executor, Windows windows, CloneStrategy cloneStrategy,
+                CommitGraph commitGraph, Checkpoints checkpoints, SharedObjects sharedObjects, boolean offline, RunReport runReport) {
+            this.executor = executor;
+            this.windows = windows;
+            this.cloneStrategy = cloneStrategy;
+            this.commitGraph = commitGraph;
+            this.checkpoints = checkpoints;
+            this.sharedObjects = sharedObjects;
+            this.offline = offline;
+            this.runReport = runReport;
+        }
+
+        /**
+         * Registers the analysis of a repository.
+         * <p>
+         * The analyses only start when calling {@link #start()}: we need to know all the roots analyzed in a clone
+         * before cloning it.
+         */
+        private RepositoryAnalysis analyzeRepository(Repository repository, String root, String branch) {
+            // repositories of different owners can have the same name
+            Path repositoryDirectory = cloneDirectory(repository);
+            // main is a shortcut for the default branch of the repository
+            String resolvedBranch = "main".equals(branch) ? repository.defaultBranch() : branch;
+
+            Clone clone = clones.computeIfAbsent(repositoryDirectory,
+                    d -> new Clone(repository, repositoryDirectory, resolvedBranch));
+            clone.roots.add(root);
+
+            // if we already analyzed the repository, we don't update the clone
+            CompletableFuture<RepositoryCommits> previousAnalysis = clone.lastAnalysis;
+            boolean alreadyAnalyzed = previousAnalysis != null;
+
+            CompletableFuture<RepositoryCommits> analysis = new CompletableFuture<>();
+            clone.lastAnalysis = analysis;
+
+            // the report is filled by the task and only read once the analysis is done
+            RepositoryReport repositoryReport = new RepositoryReport(repository.fullName(), root);
+            runReport.repositories.add(repositoryReport);
+
+            // the executor runs the tasks in submission order so the previous analysis of the clone is either done
+            // or running when we wait for it: waiting for it can't starve the pool
+            tasks.add(() -> {
+                try {
+                    System.out.println(" > Analyzing " + repository.fullName());
+
+                    if (alreadyAnalyzed) {
+                        try {
+                            previousAnalysis.get();
+                        } catch (ExecutionException e) {
+                            throw new IllegalStateException("Unable to analyze " + repository.fullName()
+                                    + " as the previous analysis of " + repositoryDirectory + " failed", e.getCause());
+                        }
+                    } else {
+                        long updateStart = System.nanoTime();
+                        repositoryReport.update = updateClone(clone);
+                        repositoryReport.updateMillis = millisSince(updateStart);
+
+                        if (commitGraph != CommitGraph.off && clone.isPathLimited()) {
+                            long commitGraphStart = System.nanoTime();
+                            writeCommitGraph(clone);
+                            repositoryReport.commitGraphMillis = millisSince(commitGraphStart);
+                        }
+                    }
+
+                    // the branch of an empty repository doesn't exist, it has no commits to count
+                    if (!hasCommit(repositoryDirectory, remoteBranch(resolvedBranch))) {
+                        System.out.println(" > No commits in " + repository.fullName() + ": the repository is empty");
+                        analysis.complete(RepositoryCommits.empty());
+                        return;
+                    }
+
+                    analysis.complete(analyzeCommits(repository, repositoryDirectory, root, resolvedBranch,
+                            repositoryReport));
+                } catch (Exception e) {
+                    analysis.completeExceptionally(e);
+                }
+            });
+
+            return new RepositoryAnalysis(repository, analysis, repositoryReport);
+        }
+
+        /**
+         * When running incrementally, only the commits added since the checkpoint of the previous run are logged,
+         * provided the window didn't change and the checkpoint is still in the history of the branch.
+         */
+        private RepositoryCommits analyzeCommits(Repository repository, Path repositoryDirectory, String root,
+                String branch, RepositoryReport repositoryReport) throws IOException, InterruptedException {
+            if (checkpoints == null) {
+                return log(repository, repositoryDirectory, root, remoteBranch(branch), repositoryReport);
+            }
+
+            String checkpointKey = Checkpoints.key(repository, root);
+            String windowsKey = windows.key();
+            String head = resolveCommit(repository, repositoryDirectory, remoteBranch(branch));
+
+            Checkpoint checkpoint = checkpoints.get(checkpointKey);
+            String fullAnalysisReason = checkpoint != null
+                    ? checkpoint.fullAnalysisReason(windowsKey, repositoryDirectory, head)
+                    : null;
+            RepositoryCommits repositoryCommits;
+
+            if (checkpoint != null && fullAnalysisReason == null) {
+                repositoryCommits = checkpoint.repositoryCommits();
+                repositoryReport.incremental = true;
+                if (!checkpoint.commit().equals(head)) {
+                    repositoryCommits.add(log(repository, repositoryDirectory, root, checkpoint.commit() + ".." + head,
+                            repositoryReport));
+                }
+            } else {
+                if (fullAnalysisReason != null) {
+                    System.out.println(" > Full analysis of " + repository.fullName() + " as " + fullAnalysisReason);
+                }
+                repositoryCommits = log(repository, repositoryDirectory, root, head, repositoryReport);
+            }
+
+            checkpoints.put(checkpointKey, Checkpoint.of(windowsKey, head, repositoryCommits));
+
+            return repositoryCommits;
+        }
+
+        private RepositoryCommits log(Repository repository, Path repositoryDirectory, String root, String revisions,
+                RepositoryReport repositoryReport) throws IOException, InterruptedException {
+            if (commitGraph == CommitGraph.compare && !".".equals(root)) {
+                // the first run of each variant warms the page cache and the object store for the measured ones
+                timeLog(repository, repositoryDirectory, root, revisions, windows.oldest(), cloneStrategy, false);
+                timeLog(repository, repositoryDirectory, root, revisions, windows.oldest(), cloneStrategy, true);
+                repositoryReport.logWithoutChangedPathsMillis += timeLog(repository, repositoryDirectory, root, revisions,
+                        windows.oldest(), cloneStrategy, false);
+            }
+
+            return logContributions(repository, repositoryDirectory, root, revisions, windows, cloneStrategy,
+                    repositoryReport);
+        }
+
+        /**
+         * Evicts the unused clones and starts the analyses.
+         */
+        private void start() throws IOException, InterruptedException {
+            // we don't want to lose clones we can't get back
+            if (!offline) {
+                evictUnusedClones();
+            }
+
+            for (Runnable task : tasks) {
+                executor.execute(task);
+            }
+        }
+
+        /**
+         * @return how the clone has been updated, for the run report
+         */
+        private String updateClone(Clone clone) throws IOException, InterruptedException {
+            if (offline) {
+                if (!Files.isDirectory(clone.directory.resolve(".git"))) {
+                    throw new IllegalStateException("No clone of " + clone.repository.fullName() + " in " + clone.directory
+                            + ", please run the script online");
+                }
+                return "offline";
+            }
+
+            try {
+                return fetchOrClone(clone);
+            } catch (IllegalStateException e) {
+                // the branch of an empty repository doesn't exist: the fetches and the single branch clones fail
+                if (!isEmptyRemote(clone)) {
+                    throw e;
+                }
+                // we keep a clone of the empty repository so that the next runs can run offline
+                if (!Files.isDirectory(clone.directory.resolve(".git"))) {
+                    git(CLONE_DIRECTORY, "Error cloning " + clone.repository.fullName(), List.of("git", "clone", "--quiet",
+                            clone.repository.sshUrl(), CLONE_DIRECTORY.relativize(clone.directory).toString()));
+                }
+                return "empty";
+            }
+        }
+
+        private String fetchOrClone(Clone clone) throws IOException, InterruptedException {
+            if (Files.isDirectory(clone.directory.resolve(".git"))) {
+                if (sharedObjects != null) {
+                    sharedObjects.borrow(clone);
+                }
+                fetchRepository(clone, cloneStrategy, windows.oldest());
+                if (sharedObjects != null) {
+                    sharedObjects.share(clone, false);
+                }
+                return "fetch";
+            } else {
+                cloneRepository(clone, cloneStrategy, windows.oldest(), sharedObjects);
+                if (sharedObjects != null) {
+                    sharedObjects.share(clone, true);
+                }
+                return "clone";
+            }
+        }
+
+        /**
+         * Deletes the clones of the repositories that are not analyzed anymore.
+         */
+        private void evictUnusedClones() throws IOException, InterruptedException {
+            List<Path> unusedClones = new ArrayList<>();
+            try (Stream<Path> owners = Files.list(CLONE_DIRECTORY)) {
+                for (Path owner : owners.filter(Files::isDirectory).sorted().toList()) {
+                    if (owner.equals(SHARED_OBJECTS_DIRECTORY)) {
+                        continue;
+                    }
+                    // clones of a previous version, only keyed by the name of the repository
+                    if (Files.isDirectory(owner.resolve(".git"))) {
+                        unusedClones.add(owner);
+                        continue;
+                    }
+                    try (Stream<Path> existingClones = Files.list(owner)) {
+                        existingClones.filter(Files::isDirectory)
+                                .filter(existingClone -> !clones.containsKey(existingClone))
+                                .sorted()
+                                .forEach(unusedClones::add);
+                    }
+                }
+            }
+
+            for (Path unusedClone : unusedClones) {
+                System.out.println(" > Evicting " + CLONE_DIRECTORY.relativize(unusedClone));
+                if (sharedObjects != null) {
+                    sharedObjects.forget(unusedClone);
+                }
+                deleteRecursively(unusedClone);
+
+                Path owner = unusedClone.getParent();
+                if (!owner.equals(CLONE_DIRECTORY)) {
+                    try (Stream<Path> ownerClones = Files.list(owner)) {
+                        if (ownerClones.findAny().isEmpty()) {
+                            Files.delete(owner);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Clone {
+
+        private final Repository repository;
+        private final Path directory;
+        private final String branch;
+        private final Set<String> roots = new TreeSet<>();
+
+        private CompletableFuture<RepositoryCommits> lastAnalysis;
+
+        private Clone(Repository repository, Path directory, String branch) {
+            this.repository = repository;
+            this.directory = directory;
+            this.branch = branch;
+        }
+
+        /**
+         * Path-limited logs need the trees and the full history to be accurate.
+         */
+        private boolean isPathLimited() {
+            return roots.stream().anyMatch(root -> !".".equals(root));
+        }
+    }
+
+    /**
+     * A bare repository the clones borrow their objects from through git alternates, so that the objects common to
+     * several repositories (forks, repositories sharing some history) are only fetched and stored once.
+     * <p>
+     * The branch of each clone is fetched in the shared repository after each update, under {@code refs/clones/}, and
+     * the new clones are repacked without the objects of the shared repository. The shared repository is never pruned
+     * as the clones might depend on any of its objects: deleting it breaks the clones, they then have to be deleted too.
+     */
+    private static class SharedObjects {
+
+        private final Path directory;
+
+        private SharedObjects(Path directory) {
+            this.directory = directory;
+        }
+
+        static SharedObjects init(Path directory, boolean offline) throws IOException, InterruptedException {
+            if (!Files.isDirectory(directory)) {
+                if (offline) {
+                    throw new IllegalStateException("No shared objects in " + directory + ", please run the script online");
+                }
+                git(directory.getParent(), "Error creating the shared objects repository",
+                        List.of("git", "init", "--quiet", "--bare", directory.getFileName().toString()));
+            }
+
+            // the clones are repacked without the shared objects so the shared repository must never drop an object,
+            // even when no ref reaches it anymore (force-pushed or forgotten branches): the automatic gc run by the
+            // fetches would prune them and corrupt the clones still depending on them.
+            // The configuration is applied at each run so that the repositories created by the previous versions get it.
+            for (List<String> config : List.of(List.of("gc.auto", "0"), List.of("maintenance.auto", "false"),
+                    List.of("gc.pruneExpire", "never"))) {
+                git(directory, "Error configuring the shared objects repository",
+                        List.of("git", "config", config.get(0), config.get(1)));
+            }
+            return new SharedObjects(directory);
+        }
+
+        /**
+         * Makes an existing clone borrow the shared objects, as if it had been cloned with {@code --reference}.
+         */
+        void borrow(Clone clone) throws IOException {
+            Path alternates = clone.directory.resolve(".git").resolve("objects").resolve("info").resolve("alternates");
+            String sharedObjects = directory.resolve("objects").toAbsolutePath().toString();
+
+            if (Files.exists(alternates) && Files.readAllLines(alternates).contains(sharedObjects)) {
+                return;
+            }
+            Files.createDirectories(alternates.getParent());
+            Files.writeString(alternates, sharedObjects + "\n", StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Fetches the analyzed branch of the clone in the shared repository.
+         * <p>
+         * The fetches are local but they update the same repository so they are serialized.
+         */
+        void share(Clone clone, boolean repack) throws IOException, InterruptedException {
+            synchronized (this) {
+                git(directory, "Error sharing the objects of " + clone.repository.fullName(),
+                        List.of("git", "fetch", "--quiet", "--no-tags", clone.directory.toAbsolutePath().toString(),
+                                "+" + remoteBranch(clone.branch) + ":" + ref(clone.directory)));
+            }
+
+            if (repack) {
+                // we only keep the objects that are not in the shared repository
+                git(clone.directory, "Error repacking " + clone.repository.fullName(),
+                        List.of("git", "repack", "-a", "-d", "-l", "-q"));
+            }
+        }
+
+        /**
+         * The objects are kept as other clones might depend on them.
+         */
+        synchronized void forget(Path cloneDirectory) throws IOException, InterruptedException {
+            git(directory, "Error deleting the shared reference of " + cloneDirectory,
+                    List.of("git", "update-ref", "-d", ref(cloneDirectory)));
+        }
+
+        private static String ref(Path cloneDirectory) {
+            StringBuilder ref = new StringBuilder("refs/clones");
+            for (Path element : CLONE_DIRECTORY.relativize(cloneDirectory)) {
+                ref.append('/').append(element);
+            }
+            return ref.toString();
+        }
+    }
+
+    /**
+     * The analyzed windows, from the oldest to the most recent start.
+     * <p>
+     * All the windows end now: a commit is counted in all the windows starting before it.
+     */
+    static final class Windows {
+
+        /**
+         * The window of a commit is stored as a byte, see {@link CommitHashes}.
+         */
+        static final int MAX_WINDOWS = Byte.MAX_VALUE + 1;
+
+        private final List<Date> starts;
+        private final long[] startSeconds;
+
+        private Windows(List<Date> starts) {
+            this.starts = starts;
+            this.startSeconds = starts.stream().mapToLong(start -> start.toInstant().getEpochSecond()).toArray();
+        }
+
+        /**
+         * @throws IllegalArgumentException if there are more than {@link #MAX_WINDOWS} windows
+         */
+        static Windows of(List<Date> since) {
+            List<Date> starts = since.stream().distinct().sorted().toList();
+            if (starts.size() > MAX_WINDOWS) {
+                throw new IllegalArgumentException("Invalid value for option '--since': at most " + MAX_WINDOWS
+                        + " windows can be analyzed in a run, got " + starts.size());
+            }
+            return new Windows(starts);
+        }
+
+        int size() {
+            return starts.size();
+        }
+
+        Date oldest() {
+            return starts.get(0);
+        }
+
+        /**
+         * @return the index of the most recent window including a commit, -1 if the commit is older than all the windows
+         */
+        int mostRecentWindow(long commitTime) {
+            for (int window = startSeconds.length - 1; window >= 0; window--) {
+                if (commitTime >= startSeconds[window]) {
+                    return window;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * The files of each window are suffixed by the start of the window, unless there is only one window.
+         */
+        String file(String fileName, int window) {
+            return starts.size() == 1 ? fileName : fileName + "-since-" + start(window);
+        }
+
+        String start(int window) {
+            return FORMATTER.format(starts.get(window).toInstant());
+        }
+
+        /**
+         * The checkpoints are only valid for the same windows.
+         */
+        String key() {
+            return starts.stream().map(start -> FORMATTER.format(start.toInstant())).collect(Collectors.joining(","));
+        }
+    }
+
+    /**
+     * The metadata of a repository we need for the analysis.
+     */
+    @RegisterForReflection
+    record Repository(String name, String fullName, String sshUrl, String defaultBranch) {
+
+        static Repository of(GHRepository repository) {
+            return new Repository(repository.getName(), repository.getFullName(), repository.getSshUrl(),
+                    repository.getDefaultBranch());
+        }
+    }
+
+    /**
+     * The repositories to analyze, as discovered from GitHub.
+     * <p>
+     * They are saved after each discovery so that we can run offline.
+     */
+    @RegisterForReflection
+    record DiscoveredRepositories(Repository quarkus, List<Repository> quarkiverseExtensions,
+            List<Repository> platformProjects, List<Repository> websiteTranslationsRepositories) {
+
+        static DiscoveredRepositories load(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                throw new IllegalStateException(file + " does not exist, please run the script online at least once");
+            }
+
+            return OBJECT_MAPPER.readValue(file.toFile(), DiscoveredRepositories.class);
+        }
+
+        void save(Path file) throws IOException {
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+        }
+    }
+
+    private record RepositoryAnalysis(Repository repository, Future<RepositoryCommits> contributions, RepositoryReport report) {
+
+        private RepositoryCommits awaitContributions() throws Exception {
+            try {
+                return contributions.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Timings and volumes of a run, saved as JSON at the end of the run so that we can find the slowest repositories
+     * and compare the runs.
+     * <p>
+     * All the durations are in milliseconds.
+     */
+    @RegisterForReflection
+    static class RunReport {
+
+        public String startedAt;
+        public long totalMillis;
+        public long discoveryMillis;
+        public long analysisMillis;
+        public GitHubUsage github;
+        public final List<RepositoryReport> repositories = new ArrayList<>();
+        public final List<OutputReport> outputs = new ArrayList<>();
+
+        void write(Path file) throws IOException {
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+        }
+
+        /**
+         * Exports the report in the Prometheus text format, to be collected by the textfile collector of the node
+         * exporter for instance.
+         */
+        void writeMetrics(Path file) throws IOException {
+            PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+            Timer.builder("get.contributors.run").tag("phase", "total").register(registry)
+                    .record(totalMillis, TimeUnit.MILLISECONDS);
+            Timer.builder("get.contributors.run").tag("phase", "discovery").register(registry)
+                    .record(discoveryMillis, TimeUnit.MILLISECONDS);
+            Timer.builder("get.contributors.run").tag("phase", "analysis").register(registry)
+                    .record(analysisMillis, TimeUnit.MILLISECONDS);
+
+            if (github != null) {
+                Counter.builder("get.contributors.github.requests").register(registry).increment(github.requests());
+                Counter.builder("get.contributors.github.not.modified").register(registry)
+                        .increment(github.notModifiedResponses());
+                Gauge.builder("get.contributors.github.rate.limit.remaining", github::rateLimitRemaining)
+                        .strongReference(true).register(registry);
+            }
+
+            for (RepositoryReport repository : repositories) {
+                Tags tags = Tags.of("repository", repository.repository, "root", repository.root);
+                for (Entry<String, Long> phase : Map.of("update", repository.updateMillis, "commit-graph",
+                        repository.commitGraphMillis, "log", repository.logMillis, "parse", repository.parseCpuMillis,
+                        "merge", repository.mergeMillis).entrySet()) {
+                    Timer.builder("get.contributors.repository").tags(tags).tag("phase", phase.getKey()).register(registry)
+                            .record(phase.getValue(), TimeUnit.MILLISECONDS);
+                }
+                Counter.builder("get.contributors.repository.log.bytes").tags(tags).register(registry)
+                        .increment(repository.logBytes);
+                Counter.builder("get.contributors.repository.commits").tags(tags).register(registry)
+                        .increment(repository.commits);
+            }
+
+            for (OutputReport output : outputs) {
+                Tags tags = Tags.of("file", output.file());
+                Timer.builder("get.contributors.output").tags(tags).tag("phase", "compact").register(registry)
+                        .record(output.compactMillis(), TimeUnit.MILLISECONDS);
+                Timer.builder("get.contributors.output").tags(tags).tag("phase", "write").register(registry)
+                        .record(output.writeMillis(), TimeUnit.MILLISECONDS);
+                Counter.builder("get.contributors.output.bytes").tags(tags).register(registry).increment(output.bytes());
+                Counter.builder("get.contributors.output.duplicate.commits").tags(tags).register(registry)
+                        .increment(output.duplicateCommits());
+            }
+
+            Files.writeString(file, registry.scrape(), StandardCharsets.UTF_8);
+        }
+
+        void printCommitGraphSpeedups() {
+            List<RepositoryReport> comparedRepositories = repositories.stream()
+                    .filter(r -> r.logWithoutChangedPathsMillis > 0)
+                    .toList();
+            if (comparedRepositories.isEmpty()) {
+                return;
+            }
+
+            System.out.println("");
+            System.out.println("Path-limited logs with the changed-path Bloom filters:");
+            for (RepositoryReport r : comparedRepositories) {
+                System.out.println(" > " + r.repository + " (" + r.root + "): " + r.logMillis + " ms instead of "
+                        + r.logWithoutChangedPathsMillis + " ms - speedup: "
+                        + String.format(Locale.ROOT, "%.1f", (double) r.logWithoutChangedPathsMillis / Math.max(1, r.logMillis))
+                        + "x - commit-graph written in " + r.commitGraphMillis + " ms");
+            }
+        }
+
+        void printSlowestRepositories(int count) {
+            System.out.println("");
+            System.out.println("Slowest repositories:");
+            repositories.stream()
+                    .sorted(Comparator.comparingLong(RepositoryReport::totalMillis).reversed())
+                    .limit(count)
+                    .forEach(r -> System.out.println(" > " + r.repository + " (" + r.root + "): " + r.totalMillis()
+                            + " ms - update: " + r.updateMillis + " ms - log: " + r.logMillis + " ms - "
+                            + r.commits + " commits"));
+        }
+    }
+
+    /**
+     * An analysis of a repository: {@code update} tells how the clone has been updated, it is {@code null} when the
+     * clone was shared with a previous analysis. The parsing happens while git produces the log so its CPU time is
+     * included in the log time.
+     * <p>
+     * {@code logWithoutChangedPathsMillis} is only measured for the path-limited logs with {@code --commit-graph compare}:
+     * both variants of the log are run once beforehand so that neither measurement pays for a cold cache, these warm-up
+     * runs are not reported.
+     */
+    @RegisterForReflection
+    static class RepositoryReport {
+
+        public final String repository;
+        public final String root;
+        public String update;
+        public boolean incremental;
+        public long updateMillis;
+        public long commitGraphMillis;
+        public long logMillis;
+        public long logWithoutChangedPathsMillis;
+        public long parseCpuMillis;
+        public long mergeMillis;
+        public long logBytes;
+        public int commits;
+        public int authors;
+
+        private RepositoryReport(String repository, String root) {
+            this.repository = repository;
+            this.root = root;
+        }
+
+        private long totalMillis() {
+            return updateMillis + commitGraphMillis + logWithoutChangedPathsMillis + logMillis + mergeMillis;
+        }
+    }
+
+    /**
+     * A generated file: {@code duplicateCommits} is the number of commits present in several repositories of the file,
+     * counted once, and {@code compactMillis} is the time spent resolving the identities.
+     */
+    @RegisterForReflection
+    record OutputReport(String file, int contributors, int duplicateCommits, long bytes, long compactMillis,
+            long writeMillis) {
+    }
+
+    /**
+     * The GitHub API requests of the discovery and the core rate limit after the discovery.
+     */
+    @RegisterForReflection
+    record GitHubUsage(int requests, int notModifiedResponses, int rateLimit, int rateLimitRemaining,
+            String rateLimitReset) {
+
+    }
+
+    private static Path cloneDirectory(Repository repository) {
+        return CLONE_DIRECTORY.resolve(repository.fullName());
+    }
+
+    private static void cloneRepository(Clone clone, CloneStrategy cloneStrategy, Date since,
+            SharedObjects sharedObjects) throws IOException, InterruptedException {
+        // leftovers of an interrupted clone
+        if (Files.exists(clone.directory)) {
+            deleteRecursively(clone.directory);
+        }
+        Files.createDirectories(clone.directory.getParent());
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("git");
+        arguments.add("clone");
+        if (cloneStrategy == CloneStrategy.full) {
+            if (!clone.branch.equals(clone.repository.defaultBranch())) {
+                arguments.add("--branch");
+                arguments.add(clone.branch);
+            }
+        } else {
+            arguments.add("--no-checkout");
+            arguments.add("--single-branch");
+            arguments.add("--no-tags");
+            arguments.add("--branch");
+            arguments.add(clone.branch);
+            arguments.add("--filter=" + cloneStrategy.filter(clone));
+        }
+        if (sharedObjects != null) {
+            arguments.add("--reference");
+            arguments.add(sharedObjects.directory.toAbsolutePath().toString());
+        }
+        arguments.add(clone.repository.sshUrl());
+        arguments.add(CLONE_DIRECTORY.relativize(clone.directory).toString());
+
+        if (cloneStrategy != CloneStrategy.full && !clone.isPathLimited()) {
+            shallowGit(CLONE_DIRECTORY, "Error cloning " + clone.repository.fullName(), arguments, since);
+        } else {
+            git(CLONE_DIRECTORY, "Error cloning " + clone.repository.fullName(), arguments);
+        }
+    }
+
+    private static void fetchRepository(Clone clone, CloneStrategy cloneStrategy, Date since)
+            throws IOException, InterruptedException {
+        // the repository might have been renamed or transferred since it was cloned
+        git(clone.directory, "Error updating the remote of " + clone.repository.fullName(),
+                List.of("git", "remote", "set-url", "origin", clone.repository.sshUrl()));
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("git");
+        arguments.add("fetch");
+        arguments.add("--no-tags");
+        boolean shallow = cloneStrategy != CloneStrategy.full && !clone.isPathLimited();
+        if (!shallow && Files.exists(clone.directory.resolve(".git").resolve("shallow"))) {
+            // the clone was shallowed by a previous run with another strategy or other roots
+            arguments.add("--unshallow");
+        }
+        arguments.add("origin");
+        arguments.add("+refs/heads/" + clone.branch + ":" + remoteBranch(clone.branch));
+
+        if (shallow) {
+            shallowGit(clone.directory, "Error fetching " + clone.repository.fullName(), arguments, since);
+        } else {
+            git(clone.directory, "Error fetching " + clone.repository.fullName(), arguments);
+        }
+    }
+
+    /**
+     * Runs a git clone or fetch with the history shallowed to the analyzed window.
+     */
+    private static void shallowGit(Path directory, String errorMessage, List<String> arguments, Date since)
+            throws IOException, InterruptedException {
+        List<String> shallowSinceArguments = new ArrayList<>(arguments);
+        shallowSinceArguments.add(2, "--shallow-since=" + FORMATTER.format(shallowSince(since)));
+
+        try {
+            git(directory, errorMessage, shallowSinceArguments);
+        } catch (IllegalStateException e) {
+            if (!e.getMessage().contains(NO_COMMITS_SELECTED_FOR_SHALLOW)) {
+                throw e;
+            }
+
+            // there are no commits in the analyzed window, the tip of the branch is all we need
+            List<String> depthArguments = new ArrayList<>(arguments);
+            depthArguments.add(2, "--depth=1");
+            git(directory, errorMessage, depthArguments);
+        }
+    }
+
+    /**
+     * Commits at the boundary of a shallow clone have no parents so they are seen as root commits
+     * and would be counted even if they are merge commits: we keep some margin so that they are
+     * (in most cases) excluded from the analyzed window.
+     */
+    private static Instant shallowSince(Date since) {
+        return since.toInstant().minus(SHALLOW_SINCE_MARGIN);
+    }
+
+    private static void git(Path directory, String errorMessage, List<String> arguments)
+            throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(arguments.toArray(new String[0]))
+                    .directory(directory.toFile())
+                    .start();
+
+        String error = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+
+        if (exitCode > 0) {
+            throw new IllegalStateException(errorMessage + " - exit code: " + exitCode + " - error: " + error);
+        }
+    }
+
+    private static String resolveCommit(Repository repository, Path repositoryDirectory, String revision)
+            throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("git", "rev-parse", "--verify", revision + "^{commit}")
+                    .directory(repositoryDirectory.toFile())
+                    .start();
+
+        String commit = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        String error = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+
+        if (exitCode > 0) {
+            throw new IllegalStateException("Error resolving " + revision + " in " + repository.fullName()
+                    + " - exit code: " + exitCode + " - error: " + error);
+        }
+
+        return commit;
+    }
+
+    /**
+     * @return false if the revision doesn't exist, for instance the branch of an empty repository, or if there is no clone
+     */
+    private static boolean hasCommit(Path repositoryDirectory, String revision) throws IOException, InterruptedException {
+        if (!Files.isDirectory(repositoryDirectory.resolve(".git"))) {
+            return false;
+        }
+
+        Process process = new ProcessBuilder("git", "rev-parse", "--verify", "--quiet", revision + "^{commit}")
+                    .directory(repositoryDirectory.toFile())
+                    .redirectOutput(Redirect.DISCARD)
+                    .redirectError(Redirect.DISCARD)
+                    .start();
+
+        return process.waitFor() == 0;
+    }
+
+    /**
+     * An empty repository has no branches.
+     */
+    private static boolean isEmptyRemote(Clone clone) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("git", "ls-remote", "--heads", clone.repository.sshUrl())
+                    .directory(CLONE_DIRECTORY.toFile())
+                    .redirectError(Redirect.DISCARD)
+                    .start();
+
+        String heads = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        return process.waitFor() == 0 && heads.isBlank();
+    }
+
+    /**
+     * A missing commit (for instance because the clone has been recreated) is not considered an ancestor.
+     */
+    private static boolean isAncestor(Path repositoryDirectory, String ancestor, String commit)
+            throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("git", "merge-base", "--is-ancestor", ancestor, commit)
+                    .directory(repositoryDirectory.toFile())
+                    .redirectOutput(Redirect.DISCARD)
+                    .redirectError(Redirect.DISCARD)
+                    .start();
+
+        return process.waitFor() == 0;
+    }
+
+    /**
+     * We always log the remote branch as it is the one updated by the fetch.
+     */
+    private static String remoteBranch(String branch) {
+        return "refs/remotes/origin/" + branch;
+    }
+
+    /**
+     * Native executables might not support measuring the CPU time of a thread, the parsing time is then reported as 0.
+     */
+    private static long currentThreadCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * @return the SHA-256 digest of the bytes, in hexadecimal
+     */
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static List<String> logArguments(String root, String revisions, Date since, CloneStrategy cloneStrategy) {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("log");
+        // NUL separated fields and records: the names can contain any other character
+        arguments.add("-z");
+        arguments.add("--format=%H%x00%an%x00%ae%x00%ct");
+        arguments.add("--no-merges");
+        // --since would use the current time of the day, we want the windows to start at midnight
+        arguments.add("--max-age=" + since.toInstant().getEpochSecond());
+        arguments.add(revisions);
+        // in a treeless clone, even the . pathspec would lazily fetch the trees
+        if (cloneStrategy != CloneStrategy.treeless || !".".equals(root)) {
+            arguments.add("--");
+            arguments.add(root);
+        }
+        return arguments;
+    }
+
+    /**
+     * Writes the commit-graph of a clone with the changed-path Bloom filters: git can then skip most of the tree diffs
+     * of a path-limited log.
+     * <p>
+     * The commit-graph is split so that only the new commits are written on the next runs.
+     */
+    private static void writeCommitGraph(Clone clone) throws IOException, InterruptedException {
+        git(clone.directory, "Error writing the commit-graph of " + clone.repository.fullName(),
+                List.of("git", "commit-graph", "write", "--reachable", "--changed-paths", "--split"));
+    }
+
+    /**
+     * Runs the log without parsing it, with or without the changed-path Bloom filters, to measure what they bring.
+     */
+    private static long timeLog(Repository repository, Path repositoryDirectory, String root, String revisions,
+            Date since, CloneStrategy cloneStrategy, boolean readChangedPaths) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("git");
+        arguments.add("-c");
+        arguments.add("commitGraph.readChangedPaths=" + readChangedPaths);
+        arguments.add("--no-pager");
+        arguments.addAll(logArguments(root, revisions, since, cloneStrategy));
+
+        Process process = new ProcessBuilder(arguments.toArray(new String[0]))
+                        .directory(repositoryDirectory.toFile())
+                        .redirectOutput(Redirect.DISCARD)
+                        .redirectError(Redirect.DISCARD)
+                        .start();
+        int exitCode = process.waitFor();
+
+        if (exitCode > 0) {
+            throw new IllegalStateException("Error getting the log of " + repository.fullName() + " for root " + root
+                    + (readChangedPaths ? "" : " without the changed-path Bloom filters") + " - exit code: " + exitCode);
+        }
+
+        return millisSince(start);
+    }
+
+    /**
+     * Streams the log of the repository and counts the commits per author as the commits arrive.
+     */
+    private static RepositoryCommits logContributions(Repository repository, Path repositoryDirectory, String root,
+            String revisions, Windows windows, CloneStrategy cloneStrategy, RepositoryReport repositoryReport)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("git");
+        arguments.add("--no-pager");
+        arguments.addAll(logArguments(root, revisions, windows.oldest(), cloneStrategy));
+
+        Process process = new ProcessBuilder(arguments.toArray(new String[0]))
+                        .directory(repositoryDirectory.toFile())
+                        .start();
+
+        // stderr has to be consumed concurrently or git might block when writing to it
+        CompletableFuture<String> error = new CompletableFuture<>();
+        Thread errorReader = new Thread(() -> {
+            try {
+                error.complete(new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                error.completeExceptionally(e);
+            }
+        }, "git-log-stderr-" + repository.name());
+        errorReader.setDaemon(true);
+        errorReader.start();
+
+        // the log is parsed as git produces it: the CPU time of this thread is the parsing time
+        long parseCpuStart = currentThreadCpuTime();
+        CountingInputStream log = new CountingInputStream(process.getInputStream());
+        RepositoryCommits repositoryCommits = countAuthorCommits(log, windows);
+        long parseCpuNanos = currentThreadCpuTime() - parseCpuStart;
+
+        int exitCode = process.waitFor();
+        errorReader.join();
+
+        repositoryReport.logMillis += millisSince(start);
+        repositoryReport.parseCpuMillis += TimeUnit.NANOSECONDS.toMillis(parseCpuNanos);
+        repositoryReport.logBytes += log.count;
+        repositoryReport.commits += repositoryCommits.hashes().size();
+
+        if (exitCode > 0) {
+            throw new IllegalStateException("Error getting the log of " + repository.fullName() + " for root " + root
+                    + " - exit code: " + exitCode + " - error: " + error.join());
+        }
+
+        return repositoryCommits;
+    }
+
+    /**
+     * Counts the commits per author and per window of a {@code git log -z --format=%H%x00%an%x00%ae%x00%ct} output and
+     * keeps the hash of each counted commit.
+     * <p>
+     * The records are counted on the raw bytes and only the distinct authors are decoded: the buffer is reused for the
+     * whole log and an author only allocates the first time it is seen.
+     *
+     * @return the commits of each author in each window, indexed as the windows, and their hashes
+     */
+    static RepositoryCommits countAuthorCommits(InputStream log, Windows windows) throws IOException {
+        CommitCounter counter = new CommitCounter(windows);
+
+        byte[] buffer = new byte[64 * 1024];
+        // the current record starts at recordStart, the bytes up to position have been scanned
+        int recordStart = 0;
+        int position = 0;
+        int limit = 0;
+        // each record is made of four NUL terminated fields: the hash, the name and email, that identify the author,
+        // and the commit time
+        int fieldCount = 0;
+        int hashEnd = 0;
+        int authorEnd = 0;
+
+        while (true) {
+            while (position < limit) {
+                if (buffer[position++] != 0) {
+                    continue;
+                }
+                fieldCount++;
+                if (fieldCount == 1) {
+                    hashEnd = position - 1;
+                } else if (fieldCount == 3) {
+                    authorEnd = position - 1;
+                } else if (fieldCount == 4) {
+                    counter.count(buffer, recordStart, hashEnd, authorEnd, position - 1);
+                    recordStart = position;
+                    fieldCount = 0;
+                }
+            }
+
+            // we keep the beginning of the current record and make room for the following bytes
+            if (recordStart > 0) {
+                System.arraycopy(buffer, recordStart, buffer, 0, limit - recordStart);
+                position -= recordStart;
+                limit -= recordStart;
+                hashEnd -= recordStart;
+                authorEnd -= recordStart;
+                recordStart = 0;
+            }
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            int read = log.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                break;
+            }
+            limit += read;
+        }
+        // an unterminated last record
+        if (fieldCount == 3 && limit > authorEnd + 1) {
+            counter.count(buffer, recordStart, hashEnd, authorEnd, limit);
+        }
+
+        return counter.repositoryCommits();
+    }
+
+    /**
+     * Counts the commits of a log: the commits are counted in the most recent window including them, the counts are
+     * accumulated at the end.
+     */
+    private static final class CommitCounter {
+
+        private final Windows windows;
+        private final DistinctRecords records;
+        // the author of each record, decoded when the record is first seen, null if the author is ignored
+        private Author[] authors = new Author[256];
+        private final CommitHashes hashes = new CommitHashes();
+
+        private CommitCounter(Windows windows) {
+            this.windows = windows;
+            this.records = new DistinctRecords(windows.size());
+        }
+
+        private void count(byte[] buffer, int recordStart, int hashEnd, int authorEnd, int commitTimeEnd) {
+            long commitTime = 0;
+            for (int i = authorEnd + 1; i < commitTimeEnd; i++) {
+                commitTime = commitTime * 10 + (buffer[i] - '0');
+            }
+
+            int window = windows.mostRecentWindow(commitTime);
+            if (window < 0) {
+                return;
+            }
+
+            int recordCount = records.recordCount;
+            int record = records.add(buffer, hashEnd + 1, authorEnd - hashEnd - 1, window);
+            if (record == recordCount) {
+                if (record == authors.length) {
+                    authors = Arrays.copyOf(authors, record * 2);
+                }
+                authors[record] = author(buffer, hashEnd + 1, authorEnd);
+            }
+
+            if (authors[record] != null) {
+                hashes.add(buffer, recordStart, window, authors[record]);
+            }
+        }
+
+        /**
+         * @return null if the author is ignored
+         */
+        private static Author author(byte[] buffer, int start, int end) {
+            int separator = start;
+            while (separator < end && buffer[separator] != 0) {
+                separator++;
+            }
+            String authorName = new String(buffer, start, separator - start, StandardCharsets.UTF_8).trim();
+            String authorEmail = separator < end
+                    ? new String(buffer, separator + 1, end - separator - 1, StandardCharsets.UTF_8).trim()
+                            .toLowerCase(Locale.ROOT)
+                    : "";
+
+            return ignore(authorName) ? null : new Author(authorName, authorEmail);
+        }
+
+        private RepositoryCommits repositoryCommits() {
+            Map<Author, int[]> authorCommits = new HashMap<>();
+            records.forEach((record, commits) -> {
+                if (authors[record] == null) {
+                    return;
+                }
+
+                // a commit counted in a window also belongs to the older windows
+                for (int window = commits.length - 2; window >= 0; window--) {
+                    commits[window] += commits[window + 1];
+                }
+
+                authorCommits.merge(authors[record], commits, GetContributors::sum);
+            });
+
+            return new RepositoryCommits(authorCommits, hashes);
+        }
+    }
+
+    /**
+     * The commits of a repository: the commits per author and per window, and the hash of each commit so that the
+     * commits present in several repositories are only counted once.
+     */
+    record RepositoryCommits(Map<Author, int[]> authorCommits, CommitHashes hashes) {
+
+        static RepositoryCommits empty() {
+            return new RepositoryCommits(new HashMap<>(), new CommitHashes());
+        }
+
+        void add(RepositoryCommits other) {
+            other.authorCommits.forEach((author, commits) -> authorCommits.merge(author, commits, GetContributors::sum));
+            hashes.addAll(other.hashes);
+        }
+    }
+
+    /**
+     * The hashes of the commits of a repository with their window and author, in parallel arrays.
+     * <p>
+     * Only the first 96 bits of a hash are kept: a 64-bit prefix and a 32-bit check, see {@link CommitSet}.
+     */
+    static final class CommitHashes {
+
+        /**
+         * The size of an encoded hash: the prefix, the check and the window.
+         */
+        static final int BYTES = Long.BYTES + Integer.BYTES + 1;
+
+        private long[] prefixes = new long[64];
+        private int[] checks = new int[64];
+        // the most recent window including the commit
+        private byte[] windows = new byte[64];
+        private Author[] authors = new Author[64];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long prefix(int commit) {
+            return prefixes[commit];
+        }
+
+        int check(int commit) {
+            return checks[commit];
+        }
+
+        int window(int commit) {
+            return windows[commit];
+        }
+
+        Author author(int commit) {
+            return authors[commit];
+        }
+
+        /**
+         * Adds a hash from its hexadecimal representation.
+         */
+        void add(byte[] buffer, int offset, int window, Author author) {
+            add(hex(buffer, offset, 16), (int) hex(buffer, offset + 16, 8), window, author);
+        }
+
+        void add(long prefix, int check, int window, Author author) {
+            if (size == prefixes.length) {
+                prefixes = Arrays.copyOf(prefixes, size * 2);
+                checks = Arrays.copyOf(checks, size * 2);
+                windows = Arrays.copyOf(windows, size * 2);
+                authors = Arrays.copyOf(authors, size * 2);
+            }
+            prefixes[size] = prefix;
+            checks[size] = check;
+            windows[size] = (byte) window;
+            authors[size] = author;
+            size++;
+        }
+
+        void addAll(CommitHashes other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.prefixes[i], other.checks[i], other.windows[i], other.authors[i]);
+            }
+        }
+
+        /**
+         * Adds the hashes of an author encoded by {@link #encode()}.
+         */
+        void decode(Author author, byte[] encodedHashes) {
+            ByteBuffer buffer = ByteBuffer.wrap(encodedHashes);
+            while (buffer.hasRemaining()) {
+                add(buffer.getLong(), buffer.getInt(), buffer.get(), author);
+            }
+        }
+
+        /**
+         * @return the hashes of each author, {@link #BYTES} bytes per hash
+         */
+        Map<Author, byte[]> encode() {
+            Map<Author, Integer> authorHashes = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                authorHashes.merge(authors[i], 1, Integer::sum);
+            }
+
+            Map<Author, ByteBuffer> buffers = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                buffers.computeIfAbsent(authors[i], a -> ByteBuffer.allocate(authorHashes.get(a) * BYTES))
+                        .putLong(prefixes[i]).putInt(checks[i]).put(windows[i]);
+            }
+
+            Map<Author, byte[]> encodedHashes = new HashMap<>();
+            buffers.forEach((author, buffer) -> encodedHashes.put(author, buffer.array()));
+            return encodedHashes;
+        }
+
+        private static long hex(byte[] buffer, int offset, int digits) {
+            long value = 0;
+            for (int i = offset; i < offset + digits; i++) {
+                int digit = buffer[i];
+                value = (value << 4) | (digit <= '9' ? digit - '0' : digit - 'a' + 10);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * The hashes of the commits already counted.
+     * <p>
+     * It is an open addressing hash set of the 64-bit prefixes of the hashes, which are uniformly distributed. The next
+     * 32 bits of each hash are stored alongside as a check: two different commits sharing the same prefix are detected
+     * and the second one goes to a fallback set, as does a zero prefix, which marks the empty slots. A set of several
+     * millions of commits takes 16 to 32 bytes per commit.
+     */
+    static final class CommitSet {
+
+        private long[] prefixes = new long[1024];
+        private int[] checks = new int[1024];
+        private int size;
+        private final Set<FallbackHash> fallback = new HashSet<>();
+
+        /**
+         * @return true if the commit was not in the set yet
+         */
+        boolean add(long prefix, int check) {
+            if (prefix == 0) {
+                return fallback.add(new FallbackHash(prefix, check));
+            }
+
+            int mask = prefixes.length - 1;
+            int slot = (int) prefix & mask;
+            while (prefixes[slot] != 0) {
+                if (prefixes[slot] == prefix) {
+                    return checks[slot] != check && fallback.add(new FallbackHash(prefix, check));
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            prefixes[slot] = prefix;
+            checks[slot] = check;
+            size++;
+
+            // we keep the load factor under 0.75
+            if (size * 4 > prefixes.length * 3) {
+                rehash();
+            }
+            return true;
+        }
+
+        int size() {
+            return size + fallback.size();
+        }
+
+        private void rehash() {
+            long[] previousPrefixes = prefixes;
+            int[] previousChecks = checks;
+            prefixes = new long[previousPrefixes.length * 2];
+            checks = new int[previousChecks.length * 2];
+            int mask = prefixes.length - 1;
+            for (int i = 0; i < previousPrefixes.length; i++) {
+                if (previousPrefixes[i] == 0) {
+                    continue;
+                }
+                int slot = (int) previousPrefixes[i] & mask;
+                while (prefixes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                prefixes[slot] = previousPrefixes[i];
+                checks[slot] = previousChecks[i];
+            }
+        }
+
+        private record FallbackHash(long prefix, int check) {
+        }
+    }
+
+    /**
+     * Adds the commits per window of an author to the ones of another author.
+     */
+    private static int[] sum(int[] commits, int[] otherCommits) {
+        for (int window = 0; window < commits.length; window++) {
+            commits[window] += otherCommits[window];
+        }
+        return commits;
+    }
+
+    /**
+     * Counts the occurrences of byte sequences in several buckets without decoding them.
+     * <p>
+     * It is an open addressing hash table: the distinct sequences are copied once in a single byte array and compared
+     * byte per byte with the new ones.
+     */
+    private static class DistinctRecords {
+
+        private final int bucketCount;
+
+        private byte[] bytes = new byte[16 * 1024];
+        private int byteCount;
+
+        private int[] offsets = new int[256];
+        private int[] lengths = new int[256];
+        private int[] hashes = new int[256];
+        // the counts of each record in each bucket
+        private int[] counts;
+        private int recordCount;
+
+        // index + 1 of the record in each slot, 0 for an empty slot
+        private int[] slots = new int[512];
+
+        private DistinctRecords(int bucketCount) {
+            this.bucketCount = bucketCount;
+            this.counts = new int[256 * bucketCount];
+        }
+
+        /**
+         * @return the index of the record, the records being indexed in order of appearance
+         */
+        private int add(byte[] buffer, int offset, int length, int bucket) {
+            int hash = hash(buffer, offset, length);
+
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (slots[slot] != 0) {
+                int record = slots[slot] - 1;
+                if (hashes[record] == hash && lengths[record] == length
+                        && Arrays.equals(bytes, offsets[record], offsets[record] + length, buffer, offset, offset + length)) {
+                    counts[record * bucketCount + bucket]++;
+                    return record;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (byteCount + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + length));
+            }
+            System.arraycopy(buffer, offset, bytes, byteCount, length);
+
+            if (recordCount == offsets.length) {
+                offsets = Arrays.copyOf(offsets, recordCount * 2);
+                lengths = Arrays.copyOf(lengths, recordCount * 2);
+                hashes = Arrays.copyOf(hashes, recordCount * 2);
+                counts = Arrays.copyOf(counts, recordCount * 2 * bucketCount);
+            }
+            offsets[recordCount] = byteCount;
+            lengths[recordCount] = length;
+            hashes[recordCount] = hash;
+            counts[recordCount * bucketCount + bucket] = 1;
+            byteCount += length;
+            recordCount++;
+            slots[slot] = recordCount;
+
+            // we keep the load factor under 0.5
+            if (recordCount * 2 > slots.length) {
+                rehash();
+            }
+            return recordCount - 1;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int record = 0; record < recordCount; record++) {
+                int slot = hashes[record] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = record + 1;
+            }
+        }
+
+        private void forEach(RecordConsumer consumer) {
+            for (int record = 0; record < recordCount; record++) {
+                consumer.accept(record, Arrays.copyOfRange(counts, record * bucketCount, (record + 1) * bucketCount));
+            }
+        }
+
+        private static int hash(byte[] buffer, int offset, int length) {
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + buffer[i];
+            }
+            // spread the high bits as we only use the low bits of the hash
+            return hash ^ (hash >>> 16);
+        }
+
+        private interface RecordConsumer {
+
+            void accept(int record, int[] counts);
+        }
+    }
+
+    /**
+     * Counts the bytes of the log.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Merges the commits of a repository in the contributions of its category.
+     */
+    private void merge(RepositoryAnalysis analysis, ContributionAggregate contributions) throws Exception {
+        RepositoryCommits repositoryCommits = analysis.awaitContributions();
+        long start = System.nanoTime();
 
-    private static final String BOT = "[bot]";
+        contributions.merge(ContributionAggregate.of(repositoryIds.id(analysis.repository().fullName()),
+                repositoryCommits, windows.size()));
 
-    private static final String NO_REPLY = "@users.noreply.github.com";
+        analysis.report().authors = repositoryCommits.authorCommits().size();
+        analysis.report().mergeMillis = millisSince(start);
+    }
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd")
-            .withZone(ZoneId.systemDefault());
+    /**
+     * The contributions of a set of repositories per author and per window: each repository gives an aggregate and the
+     * contributions of a file are the merge of the aggregates of its repositories.
+     * <p>
+     * An aggregate counts a commit once, even if it is present in several of its repositories (forks, mirrors, imported
+     * or transferred repositories, repositories analyzed for several roots): the counted commits are kept with their
+     * hash so that a merge skips the commits already counted, while the repositories of an author are all the
+     * repositories containing their commits. As a commit always has the same author and the same date, the result
+     * doesn't depend on the order of the merges.
+     */
+    static final class ContributionAggregate {
+
+        private final int windowCount;
+        private final Map<Author, AuthorContributions> authors = new HashMap<>();
+        private final CommitHashes commits;
+        // the set of the counted commits, only built when other aggregates are merged in this one
+        private CommitSet countedCommits;
+        // the commits skipped by the merges, in the most recent window including them
+        private final int[] duplicateCommits;
+
+        ContributionAggregate(int windowCount) {
+            this(windowCount, new CommitHashes());
+        }
 
-    @Option(names = "--since", paramLabel = "<since>", description = "Date from which we consider the contributions")
-    Date since;
+        private ContributionAggregate(int windowCount, CommitHashes commits) {
+            this.windowCount = windowCount;
+            this.commits = commits;
+            this.duplicateCommits = new int[windowCount];
+        }
 
-    @Option(names = { "--main-repository-branch" }, paramLabel = "<mainRepositoryBranch>", description = "Branch of the main repository in which we consider the contributions", defaultValue = "main")
-    String mainRepositoryBranch;
+        /**
+         * The aggregate of a repository, only meant to be merged in the aggregate of its category.
+         * <p>
+         * The merges count the commits from their hashes so the aggregate of a repository only has the repositories of
+         * its authors, not their commits. To avoid copying them, the aggregate takes over the hashes of the repository
+         * commits, which must not be modified afterwards: it must not be merged into, as this would add to these hashes.
+         */
+        static ContributionAggregate of(int repository, RepositoryCommits repositoryCommits, int windowCount) {
+            ContributionAggregate aggregate = new ContributionAggregate(windowCount, repositoryCommits.hashes());
+            for (Entry<Author, int[]> authorCommits : repositoryCommits.authorCommits().entrySet()) {
+                AuthorContributions contributions = aggregate.author(authorCommits.getKey());
+                for (int window = 0; window < windowCount; window++) {
+                    if (authorCommits.getValue()[window] > 0) {
+                        contributions.repositories[window].set(repository);
+                    }
+                }
+            }
+            return aggregate;
+        }
 
-    @Option(names = "--sort", defaultValue = "name")
-    Sort sort;
+        void merge(ContributionAggregate other) {
+            if (countedCommits == null) {
+                countedCommits = new CommitSet();
+                for (int i = 0; i < commits.size(); i++) {
+                    countedCommits.add(commits.prefix(i), commits.check(i));
+                }
+            }
 
-    @Override
-    public Integer call() throws Exception {
-        if (Files.exists(CLONE_DIRECTORY)) {
-            throw new IllegalStateException(CLONE_DIRECTORY + " already exists, please delete it before starting the script");
+            for (int i = 0; i < other.commits.size(); i++) {
+                int window = other.commits.window(i);
+                if (!countedCommits.add(other.commits.prefix(i), other.commits.check(i))) {
+                    duplicateCommits[window]++;
+                    continue;
+                }
+                commits.add(other.commits.prefix(i), other.commits.check(i), window, other.commits.author(i));
+                // a commit counted in a window also belongs to the older windows
+                int[] authorCommits = author(other.commits.author(i)).commits;
+                for (int olderWindow = 0; olderWindow <= window; olderWindow++) {
+                    authorCommits[olderWindow]++;
+                }
+            }
+
+            for (Entry<Author, AuthorContributions> otherAuthor : other.authors.entrySet()) {
+                AuthorContributions contributions = author(otherAuthor.getKey());
+                for (int window = 0; window < windowCount; window++) {
+                    contributions.repositories[window].or(otherAuthor.getValue().repositories[window]);
+                }
+            }
+            for (int window = 0; window < windowCount; window++) {
+                duplicateCommits[window] += other.duplicateCommits[window];
+            }
+        }
+
+        /**
+         * One resolver per window: the identities are resolved from the commits of the window only, as if the window had
+         * been analyzed alone.
+         */
+        IdentityResolver identityResolver(int window, RepositoryIds repositoryIds) {
+            IdentityResolver identityResolver = new IdentityResolver(repositoryIds);
+            for (Entry<Author, AuthorContributions> author : authors.entrySet()) {
+                if (!author.getValue().repositories[window].isEmpty()) {
+                    identityResolver.push(author.getKey().name(), author.getKey().email(),
+                            author.getValue().commits[window], author.getValue().repositories[window]);
+                }
+            }
+            return identityResolver;
         }
 
-        Files.createDirectory(CLONE_DIRECTORY);
-        Files.deleteIfExists(QUARKUS_CONTRIBUTORS_FILE);
-        Files.deleteIfExists(QUARKIVERSE_CONTRIBUTORS_FILE);
-        Files.deleteIfExists(PLATFORM_CONTRIBUTORS_FILE);
-        Files.deleteIfExists(WEBSITE_TRANSLATIONS_CONTRIBUTORS_FILE);
-        Files.deleteIfExists(ALL_CONTRIBUTORS_FILE);
+        int duplicateCommits(int window) {
+            int windowDuplicateCommits = 0;
+            for (int mostRecentWindow = window; mostRecentWindow < windowCount; mostRecentWindow++) {
+                windowDuplicateCommits += duplicateCommits[mostRecentWindow];
+            }
+            return windowDuplicateCommits;
+        }
 
-        final GitHub github = GitHub.connectAnonymously();
+        private AuthorContributions author(Author author) {
+            return authors.computeIfAbsent(author, a -> new AuthorContributions(windowCount));
+        }
 
-        Map<String, Contribution> allNameContributionMap = new HashMap<>();
-        Map<String, Contribution> allEmailContributionMap = new HashMap<>();
-        List<Contribution> allContributions = new ArrayList<>();
+        /**
+         * The commits of an author in each window and the repositories in which they have commits in each window.
+         */
+        private static final class AuthorContributions {
 
-        System.out.println("Analyzing Quarkus main repository");
+            private final int[] commits;
+            private final BitSet[] repositories;
 
-        Map<String, Contribution> quarkusNameContributionMap = new HashMap<>();
-        Map<String, Contribution> quarkusEmailContributionMap = new HashMap<>();
-        List<Contribution> quarkusContributions = new ArrayList<>();
+            private AuthorContributions(int windowCount) {
+                this.commits = new int[windowCount];
+                this.repositories = new BitSet[windowCount];
+                for (int window = 0; window < windowCount; window++) {
+                    repositories[window] = new BitSet();
+                }
+            }
+        }
+    }
 
-        analyzeRepository(github.getRepository("quarkusio/quarkus"), ".", mainRepositoryBranch, since,
-                allNameContributionMap, allEmailContributionMap, allContributions,
-                quarkusNameContributionMap, quarkusEmailContributionMap, quarkusContributions);
+    record Author(String name, String email) {
+    }
 
-        writeContributions(quarkusContributions, QUARKUS_CONTRIBUTORS_FILE, sort);
+    /**
+     * Checkpoints of the previous run, used to only analyze the new commits of each repository.
+     * <p>
+     * Only the checkpoints of the repositories analyzed during the current run are saved.
+     */
+    static class Checkpoints {
 
-        // Get Quarkiverse contributors
-        List<GHRepository> quarkiverseExtensions = github.searchRepositories()
-                .org("quarkiverse")
-                .topic("quarkus-extension")
-                .order(GHDirection.ASC)
-                .list().withPageSize(200).toList();
+        private static final TypeReference<Map<String, Checkpoint>> CHECKPOINTS_TYPE = new TypeReference<>() {
+        };
 
-        Map<String, Contribution> quarkiverseNameContributionMap = new HashMap<>();
-        Map<String, Contribution> quarkiverseEmailContributionMap = new HashMap<>();
-        List<Contribution> quarkiverseContributions = new ArrayList<>();
+        private final Path file;
+        private final Map<String, Checkpoint> previousCheckpoints;
+        private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
 
-        System.out.println("");
-        System.out.println("Analyzing " + quarkiverseExtensions.size() + " Quarkiverse repositories");
+        private Checkpoints(Path file, Map<String, Checkpoint> previousCheckpoints) {
+            this.file = file;
+            this.previousCheckpoints = previousCheckpoints;
+        }
+
+        static Checkpoints load(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return new Checkpoints(file, Map.of());
+            }
 
-        for (GHRepository quarkiverseExtension : quarkiverseExtensions) {
-            analyzeRepository(quarkiverseExtension, ".", "main", since,
-                    allNameContributionMap, allEmailContributionMap, allContributions,
-                    quarkiverseNameContributionMap, quarkiverseEmailContributionMap, quarkiverseContributions);
+            // the checkpoints of the previous versions don't have windows so their repositories are fully analyzed again
+            return new Checkpoints(file, OBJECT_MAPPER.readerFor(CHECKPOINTS_TYPE)
+                    .with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(file.toFile()));
         }
 
-        writeContributions(quarkiverseContributions, QUARKIVERSE_CONTRIBUTORS_FILE, sort);
+        Checkpoint get(String key) {
+            return previousCheckpoints.get(key);
+        }
 
-        // Get platform projects contributors
-        System.out.println("");
-        System.out.println("Analyzing " + PLATFORM_PROJECTS.size() + " Platform repositories");
+        void put(String key, Checkpoint checkpoint) {
+            checkpoints.put(key, checkpoint);
+        }
 
-        Map<String, Contribution> platformNameContributionMap = new HashMap<>();
-        Map<String, Contribution> platformEmailContributionMap = new HashMap<>();
-        List<Contribution> platformContributions = new ArrayList<>();
+        void save() throws IOException {
+            Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+            OBJECT_MAPPER.writeValue(temporaryFile.toFile(), new TreeMap<>(checkpoints));
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
 
-        for (Entry<String, String> otherProjectEntry : PLATFORM_PROJECTS.entrySet()) {
-            GHRepository repository = github.getRepository(otherProjectEntry.getKey());
-            analyzeRepository(repository, otherProjectEntry.getValue(), "main", since,
-                    allNameContributionMap, allEmailContributionMap, allContributions,
-                    platformNameContributionMap, platformEmailContributionMap, platformContributions);
+        static String key(Repository repository, String root) {
+            return repository.fullName() + ":" + root;
         }
+    }
 
-        writeContributions(platformContributions, PLATFORM_CONTRIBUTORS_FILE, sort);
+    /**
+     * The last analyzed commit of a repository and the commits per author and per window up to this commit, with their
+     * hashes.
+     */
+    @RegisterForReflection
+    record Checkpoint(String windows, String commit, List<CheckpointAuthor> authors) {
 
-        // Get website translations contributors
-        List<GHRepository> websiteTranslationsRepositories = github.searchRepositories()
-                .org("quarkusio")
-                .topic("translation")
-                .order(GHDirection.ASC)
-                .list().withPageSize(200).toList();
+        static Checkpoint of(String windows, String commit, RepositoryCommits repositoryCommits) {
+            Map<Author, byte[]> hashes = repositoryCommits.hashes().encode();
 
-        Map<String, Contribution> websiteTranslationsNameContributionMap = new HashMap<>();
-        Map<String, Contribution> websiteTranslationsEmailContributionMap = new HashMap<>();
-        List<Contribution> websiteTranslationsContributions = new ArrayList<>();
+            List<CheckpointAuthor> authors = new ArrayList<>(repositoryCommits.authorCommits().size());
+            for (Entry<Author, int[]> authorCommits : repositoryCommits.authorCommits().entrySet()) {
+                authors.add(new CheckpointAuthor(authorCommits.getKey().name(), authorCommits.getKey().email(),
+                        authorCommits.getValue(), hashes.getOrDefault(authorCommits.getKey(), new byte[0])));
+            }
+            authors.sort(Comparator.comparing(CheckpointAuthor::name).thenComparing(CheckpointAuthor::email));
 
-        System.out.println("");
-        System.out.println("Analyzing " + websiteTranslationsRepositories.size() + " website translations repositories");
+            return new Checkpoint(windows, commit, authors);
+        }
 
-        for (GHRepository websiteTranslationsRepository : websiteTranslationsRepositories) {
-            analyzeRepository(websiteTranslationsRepository, ".", "main", since,
-                    allNameContributionMap, allEmailContributionMap, allContributions,
-                    websiteTranslationsNameContributionMap, websiteTranslationsEmailContributionMap, websiteTranslationsContributions);
+        /**
+         * @return why the repository has to be analyzed from scratch, {@code null} if only the commits added since the
+         *         checkpoint have to be analyzed
+         */
+        String fullAnalysisReason(String windowsKey, Path repositoryDirectory, String head)
+                throws IOException, InterruptedException {
+            if (!windowsKey.equals(windows)) {
+                return "the windows have changed";
+            }
+            if (!hasHashes()) {
+                return "its checkpoint doesn't have the commit hashes";
+            }
+            if (!isAncestor(repositoryDirectory, commit, head)) {
+                return "its history has been rewritten";
+            }
+            return null;
         }
 
-        writeContributions(websiteTranslationsContributions, WEBSITE_TRANSLATIONS_CONTRIBUTORS_FILE, sort);
+        /**
+         * The checkpoints of the previous versions don't have the hashes.
+         */
+        boolean hasHashes() {
+            return authors.stream().allMatch(author -> author.hashes() != null);
+        }
 
-        writeContributions(allContributions, ALL_CONTRIBUTORS_FILE, sort);
+        RepositoryCommits repositoryCommits() {
+            Map<Author, int[]> authorCommits = new HashMap<>();
+            CommitHashes hashes = new CommitHashes();
+            for (CheckpointAuthor checkpointAuthor : authors) {
+                // the ignored authors might have changed since the checkpoint was saved
+                if (ignore(checkpointAuthor.name())) {
+                    continue;
+                }
+                Author author = new Author(checkpointAuthor.name(), checkpointAuthor.email());
+                authorCommits.put(author, checkpointAuthor.commits().clone());
+                hashes.decode(author, checkpointAuthor.hashes());
+            }
+            return new RepositoryCommits(authorCommits, hashes);
+        }
+    }
 
-        return 0;
+    /**
+     * The hashes are encoded by {@link CommitHashes#encode()}, base64 in the JSON file.
+     */
+    @RegisterForReflection
+    record CheckpointAuthor(String name, String email, int[] commits, byte[] hashes) {
     }
 
-    private static void analyzeRepository(GHRepository repository, String root, String branch,
-            Date since,
-            Map<String, Contribution> allNameContributionMap,
-            Map<String, Contribution> allEmailContributionMap,
-            List<Contribution> allContributions,
-            Map<String, Contribution> currentNameContributionMap,
-            Map<String, Contribution> currentEmailContributionMap,
-            List<Contribution> currentContributions) throws IOException, InterruptedException {
-        System.out.println(" > Analyzing " + repository.getFullName());
-
-        Path repositoryDirectory = CLONE_DIRECTORY.resolve(repository.getName());
-        Process process;
-
-        // if we already analyzed the repository, we don't clone it
-        // and we redirect the contributions to other maps so that it doesn't get
-        // counted twice for the contributors-all.csv file
-        boolean alreadyAnalyzed = Files.exists(repositoryDirectory);
-
-        if (!alreadyAnalyzed) {
-            List<String> arguments = new ArrayList<>();
-            arguments.add("git");
-            arguments.add("clone");
-            if (!"main".equals(branch)) {
-                arguments.add("--branch");
-                arguments.add(branch);
-            }
-            arguments.add(repository.getSshUrl());
+    /**
+     * Resolves the identities of the contributors.
+     * <p>
+     * Each distinct author (name + email) is a node of a union-find structure, as are the normalized names, the emails and
+     * the GitHub handles extracted from the noreply addresses. An author is united with its name, email and handle so
+     * that two authors sharing any of them, even transitively, end up in the same contributor, whatever the order in
+     * which the commits are pushed.
+     */
+    static class IdentityResolver {
+
+        private final RepositoryIds repositoryIds;
+        private final Map<String, String> normalizedNames = new HashMap<>();
+        private final Map<String, Integer> nameNodes = new HashMap<>();
+        private final Map<String, Integer> emailNodes = new HashMap<>();
+        private final Map<String, Integer> usernameNodes = new HashMap<>();
+        private final Map<Author, Alias> aliases = new HashMap<>();
+
+        private int[] parents = new int[1024];
+        private int[] sizes = new int[1024];
+        private int nodeCount;
+
+        IdentityResolver(RepositoryIds repositoryIds) {
+            this.repositoryIds = repositoryIds;
+        }
 
-            process = new ProcessBuilder(arguments.toArray(new String[0]))
-                        .directory(CLONE_DIRECTORY.toFile())
-                        .start();
+        /**
+         * Pushes the commits of an author in several repositories.
+         */
+        void push(String authorName, String authorEmail, int commits, BitSet repositories) {
+            Alias alias = alias(authorName, authorEmail);
+            alias.commits += commits;
+            alias.repositories.or(repositories);
+        }
 
-            String error = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-            int exitCode = process.waitFor();
+        private Alias alias(String authorName, String authorEmail) {
+            Author author = new Author(authorName, authorEmail);
 
-            if (exitCode > 0) {
-                throw new IllegalStateException("Error cloning " + repository.getFullName() + " - exit code: "
-                        + exitCode + " - error: " + error);
+            Alias alias = aliases.get(author);
+            if (alias == null) {
+                alias = createAlias(authorName, authorEmail);
+                aliases.put(author, alias);
             }
+            return alias;
         }
 
-        Path errorFile = repositoryDirectory.resolve("error.txt");
-        Path contributionsFile = repositoryDirectory.resolve("contributions.txt");
+        private Alias createAlias(String authorName, String authorEmail) {
+            String username = "";
+            if (isNoReply(authorEmail)) {
+                username = extractUsername(authorEmail);
+                authorEmail = "";
+            }
 
-        List<String> arguments = new ArrayList<>();
-        arguments.add("git");
-        arguments.add("--no-pager");
-        arguments.add("log");
-        arguments.add("--format=%an;%ae");
-        arguments.add("--no-merges");
-        arguments.add("--since");
-        arguments.add(FORMATTER.format(since.toInstant()));
-        if (!"main".equals(branch)) {
-            arguments.add(branch);
+            Alias alias = new Alias(authorName, authorEmail, username, newNode());
+
+            String normalizedAuthorName = normalizedNames.computeIfAbsent(authorName,
+                    n -> Junidecode.unidecode(n).toLowerCase(Locale.ROOT));
+            if (!normalizedAuthorName.isBlank()) {
+                union(alias.node, nameNodes.computeIfAbsent(normalizedAuthorName, n -> newNode()));
+            }
+            if (!authorEmail.isBlank()) {
+                union(alias.node, emailNodes.computeIfAbsent(authorEmail, e -> newNode()));
+            }
+            if (!username.isBlank()) {
+                union(alias.node, usernameNodes.computeIfAbsent(username, u -> newNode()));
+            }
+
+            return alias;
         }
-        arguments.add("--");
-        arguments.add(root);
 
-        process = new ProcessBuilder(arguments.toArray(new String[0]))
-                        .directory(repositoryDirectory.toFile())
-                        .redirectError(errorFile.toFile())
-                        .redirectOutput(contributionsFile.toFile())
-                        .start();
+        /**
+         * Compacts the aliases into one contribution per identity.
+         * <p>
+         * The contributions are sorted by author and email so that the order is stable.
+         */
+        List<Contribution> contributions() {
+            Map<Integer, List<Alias>> identities = new HashMap<>();
+            for (Alias alias : aliases.values()) {
+                identities.computeIfAbsent(find(alias.node), r -> new ArrayList<>()).add(alias);
+            }
 
-        process.waitFor();
+            List<Contribution> contributions = new ArrayList<>(identities.size());
+            for (List<Alias> identity : identities.values()) {
+                contributions.add(compact(identity));
+            }
+            contributions.sort(Comparator.comparing((Contribution c) -> c.author).thenComparing(c -> c.email));
 
-        parseContributions(repository, contributionsFile,
-                alreadyAnalyzed ? new HashMap<>() : allNameContributionMap,
-                alreadyAnalyzed ? new HashMap<>() : allEmailContributionMap,
-                alreadyAnalyzed ? new ArrayList<>() : allContributions,
-                currentNameContributionMap, currentEmailContributionMap, currentContributions);
-    }
+            return contributions;
+        }
 
-    private static void parseContributions(GHRepository repository,
-            Path contributionsFile,
-            Map<String, Contribution> allNameContributionMap,
-            Map<String, Contribution> allEmailContributionMap,
-            List<Contribution> allContributions,
-            Map<String, Contribution> currentNameContributionMap,
-            Map<String, Contribution> currentEmailContributionMap,
-            List<Contribution> currentContributions)
-            throws IOException {
-        for (String line : Files.readAllLines(contributionsFile)) {
-            String[] tokens = line.split(";");
-            String authorName = tokens[0].trim();
-            String authorEmail = tokens.length > 1 ? tokens[1].trim().toLowerCase(Locale.ROOT) : "";
-
-            if (ignore(authorName)) {
-                continue;
-            }
-
-            pushContributions(repository, authorName, authorEmail, allNameContributionMap, allEmailContributionMap,
-                    allContributions);
-            pushContributions(repository, authorName, authorEmail, currentNameContributionMap, currentEmailContributionMap,
-                    currentContributions);
-        }
-    }
-
-    private static void pushContributions(GHRepository repository, String authorName, String authorEmail,
-            Map<String, Contribution> nameContributionMap,
-            Map<String, Contribution> emailContributionMap,
-            List<Contribution> contributions) {
-        String normalizedAuthorName = Junidecode.unidecode(authorName).toLowerCase(Locale.ROOT);
-        String username = "";
-        if (isNoReply(authorEmail)) {
-            username = extractUsername(authorEmail);
-            authorEmail = "";
-        }
-
-        Contribution contribution = nameContributionMap.get(normalizedAuthorName);
-        if (contribution != null) {
-            contribution.commits++;
-            contribution.repositories.add(repository.getFullName());
-            if (contribution.email.equals(authorEmail)) {
-                // nothing, all is good
-            } else if (contribution.email.isBlank()) {
-                contribution.email = authorEmail;
-                contribution.username = "";
-
-                Contribution sameEmailContribution = emailContributionMap.get(contribution.email);
-                if (sameEmailContribution != null) {
-                    sameEmailContribution.author = sameEmailContribution.author.length() > authorName.length() ? sameEmailContribution.author : authorName;
-                    sameEmailContribution.commits += contribution.commits;
-                    sameEmailContribution.username = "";
-
-                    contributions.remove(contribution);
-                    nameContributionMap.put(normalizedAuthorName, sameEmailContribution);
-                } else {
-                    emailContributionMap.put(authorEmail, contribution);
+        /**
+         * We keep the longest name, and the email or the handle with the most commits.
+         * Names of the same length are broken by the number of commits, then the original names are preferred to their
+         * transliterations (José to Jose). The remaining ties are broken with the natural order so that the result
+         * doesn't depend on the order of the commits.
+         */
+        private Contribution compact(List<Alias> identity) {
+            int commits = 0;
+            BitSet repositories = new BitSet();
+            Map<String, Integer> nameCommits = new HashMap<>();
+            Map<String, Integer> emailCommits = new HashMap<>();
+            Map<String, Integer> usernameCommits = new HashMap<>();
+
+            for (Alias alias : identity) {
+                nameCommits.merge(alias.author, alias.commits, Integer::sum);
+                commits += alias.commits;
+                repositories.or(alias.repositories);
+                if (!alias.email.isBlank()) {
+                    emailCommits.merge(alias.email, alias.commits, Integer::sum);
                 }
-            } else {
-                emailContributionMap.put(authorEmail, contribution);
-            }
-        } else if (!authorEmail.isBlank()) {
-            contribution = emailContributionMap.get(authorEmail);
-            if (contribution != null) {
-                contribution.commits++;
-                contribution.repositories.add(repository.getFullName());
-                if (contribution.author.equals(authorName)) {
-                    // nothing, all is good
-                } else {
-                    if (authorName.length() > contribution.author.length()) {
-                        contribution.author = authorName;
-                    }
-                    nameContributionMap.put(normalizedAuthorName, contribution);
+                if (!alias.username.isBlank()) {
+                    usernameCommits.merge(alias.username, alias.commits, Integer::sum);
                 }
-            } else {
-                contribution = new Contribution(authorName, authorEmail, username, repository.getFullName());
-                nameContributionMap.put(normalizedAuthorName, contribution);
-                emailContributionMap.put(authorEmail, contribution);
-                contributions.add(contribution);
             }
-        } else {
-            contribution = new Contribution(authorName, authorEmail, username, repository.getFullName());
-            nameContributionMap.put(normalizedAuthorName, contribution);
-            contributions.add(contribution);
+
+            String author = nameCommits.entrySet().stream()
+                    .min(Comparator.comparing((Entry<String, Integer> e) -> -e.getKey().length())
+                            .thenComparing(e -> -e.getValue())
+                            .thenComparing(e -> isTransliterated(e.getKey()))
+                            .thenComparing(Entry::getKey))
+                    .map(Entry::getKey)
+                    .orElseThrow();
+            String email = mostCommits(emailCommits);
+            String username = email.isEmpty() ? mostCommits(usernameCommits) : "";
+
+            return new Contribution(author, email, username, commits, repositories, repositoryIds,
+                    new TreeSet<>(emailCommits.keySet()), new TreeSet<>(usernameCommits.keySet()));
+        }
+
+        /**
+         * A name without any character to transliterate might be the transliteration of another one.
+         */
+        private static boolean isTransliterated(String name) {
+            return Junidecode.unidecode(name).equals(name);
+        }
+
+        private static String mostCommits(Map<String, Integer> commitsPerValue) {
+            return commitsPerValue.entrySet().stream()
+                    .min(Comparator.comparing((Entry<String, Integer> e) -> -e.getValue()).thenComparing(Entry::getKey))
+                    .map(Entry::getKey)
+                    .orElse("");
+        }
+
+        private int newNode() {
+            if (nodeCount == parents.length) {
+                parents = Arrays.copyOf(parents, nodeCount * 2);
+                sizes = Arrays.copyOf(sizes, nodeCount * 2);
+            }
+            parents[nodeCount] = nodeCount;
+            sizes[nodeCount] = 1;
+            return nodeCount++;
+        }
+
+        private int find(int node) {
+            while (parents[node] != node) {
+                // path halving
+                parents[node] = parents[parents[node]];
+                node = parents[node];
+            }
+            return node;
+        }
+
+        private void union(int node1, int node2) {
+            int root1 = find(node1);
+            int root2 = find(node2);
+            if (root1 == root2) {
+                return;
+            }
+            // union by size
+            if (sizes[root1] < sizes[root2]) {
+                int root = root1;
+                root1 = root2;
+                root2 = root;
+            }
+            parents[root2] = root1;
+            sizes[root1] += sizes[root2];
+        }
+
+        private static class Alias {
+
+            private final String author;
+            private final String email;
+            private final String username;
+            private final int node;
+            private int commits;
+            private final BitSet repositories = new BitSet();
+
+            private Alias(String author, String email, String username, int node) {
+                this.author = author;
+                this.email = email;
+                this.username = username;
+                this.node = node;
+            }
         }
     }
 
-    private static void writeContributions(List<Contribution> contributions, Path file, Sort sort) throws IOException {
-        sort.sort(contributions);
+    private void writeContributions(ContributionAggregate aggregate, String fileName, ContributorIndex.Builder index)
+            throws IOException {
+        for (int window = 0; window < windows.size(); window++) {
+            List<Contribution> contributions = writeContributions(aggregate, window, windows.file(fileName, window));
+            index.add(window, fileName, contributions);
+        }
+    }
+
+    private List<Contribution> writeContributions(ContributionAggregate aggregate, int window, String fileName)
+            throws IOException {
+        long start = System.nanoTime();
+        List<Contribution> contributions = aggregate.identityResolver(window, repositoryIds).contributions();
+        long compactMillis = millisSince(start);
 
-        Files.write(file,
-                ("Name;Email;GH handle if no email;Commits;Repositories\n").getBytes(),
-                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        start = System.nanoTime();
+        sort.sort(contributions);
 
-        for (Contribution contribution : contributions) {
-            Files.write(file,
-                    ("\"" + contribution.author + "\";\"" + contribution.email + "\";" + contribution.username + ";"
-                            + contribution.commits + ";"
-                            + String.join(",", contribution.repositories) + "\n")
-                                    .getBytes(),
-                    StandardOpenOption.APPEND);
+        Path file = outputFormat.file(fileName);
+        try (ContributionWriter writer = outputFormat.open(file)) {
+            for (Contribution contribution : contributions) {
+                writer.write(contribution);
+            }
         }
+
+        runReport.outputs.add(new OutputReport(file.toString(), contributions.size(),
+                aggregate.duplicateCommits(window), Files.size(file), compactMillis, millisSince(start)));
+
+        return contributions;
     }
 
     private static boolean ignore(String username) {
@@ -377,20 +2401,253 @@ public class GetContributors implements Callable<Integer> {
         return username;
     }
 
+    /**
+     * The contributors of a run, indexed for the queries of the service.
+     * <p>
+     * An index is not modified once built: each refresh builds a new index that replaces the previous one.
+     */
+    static final class ContributorIndex {
+
+        private final String refreshedAt;
+        private final long refreshMillis;
+        // window -> category -> contributors
+        private final Map<String, Map<String, Contributors>> contributors;
+
+        private ContributorIndex(String refreshedAt, long refreshMillis, Map<String, Map<String, Contributors>> contributors) {
+            this.refreshedAt = refreshedAt;
+            this.refreshMillis = refreshMillis;
+            this.contributors = contributors;
+        }
+
+        String refreshedAt() {
+            return refreshedAt;
+        }
+
+        long refreshMillis() {
+            return refreshMillis;
+        }
+
+        List<String> windows() {
+            return List.copyOf(contributors.keySet());
+        }
+
+        List<String> categories() {
+            return List.copyOf(contributors.values().iterator().next().keySet());
+        }
+
+        /**
+         * @param window the start of the window, the oldest window if null
+         * @return null if there is no such window or category
+         */
+        Contributors contributors(String window, String category) {
+            Map<String, Contributors> categories = contributors.get(window != null ? window : windows().get(0));
+            return categories != null ? categories.get(category) : null;
+        }
+
+        static final class Builder {
+
+            private final Windows windows;
+            private final Map<String, Map<String, Contributors>> contributors = new LinkedHashMap<>();
+
+            Builder(Windows windows) {
+                this.windows = windows;
+                for (int window = 0; window < windows.size(); window++) {
+                    contributors.put(windows.start(window), new LinkedHashMap<>());
+                }
+            }
+
+            /**
+             * The category is the name of the file without the {@code contributors-} prefix.
+             */
+            void add(int window, String fileName, List<Contribution> contributions) {
+                contributors.get(windows.start(window)).put(fileName.substring(fileName.indexOf('-') + 1),
+                        Contributors.of(contributions));
+            }
+
+            ContributorIndex build(String refreshedAt, long refreshMillis) {
+                return new ContributorIndex(refreshedAt, refreshMillis, contributors);
+            }
+        }
+    }
+
+    /**
+     * A contribution as served, with the same fields as the {@code jsonl} output.
+     */
+    @RegisterForReflection
+    record Contributor(String name, String email, String username, int commits, List<String> repositories) {
+    }
+
+    /**
+     * The contributors of a category for a window, with the lookups of the service precomputed.
+     * <p>
+     * A contributor is found by any of the emails and handles they committed with, not only by the ones they are
+     * served with.
+     */
+    static final class Contributors {
+
+        private static final Comparator<Contribution> MOST_COMMITS = Comparator
+                .comparingInt((Contribution c) -> c.commits).reversed()
+                .thenComparing(c -> c.author, String.CASE_INSENSITIVE_ORDER);
+
+        // sorted by decreasing number of commits so that the lookups return the main contributor for a key
+        private final List<Contributor> contributors;
+        private final Map<String, Contributor> byEmail = new HashMap<>();
+        private final Map<String, Contributor> byUsername = new HashMap<>();
+        private final Map<String, List<Contributor>> byRepository = new HashMap<>();
+
+        private Contributors(int size) {
+            this.contributors = new ArrayList<>(size);
+        }
+
+        static Contributors of(List<Contribution> contributions) {
+            List<Contribution> sortedContributions = new ArrayList<>(contributions);
+            sortedContributions.sort(MOST_COMMITS);
+
+            Contributors contributors = new Contributors(sortedContributions.size());
+            for (Contribution contribution : sortedContributions) {
+                contributors.add(contribution);
+            }
+            return contributors;
+        }
+
+        private void add(Contribution contribution) {
+            Contributor contributor = new Contributor(contribution.author, contribution.email, contribution.username,
+                    contribution.commits, contribution.repositoryNames());
+            contributors.add(contributor);
+
+            for (String email : contribution.emails()) {
+                byEmail.putIfAbsent(email.toLowerCase(Locale.ROOT), contributor);
+            }
+            // GitHub handles are case insensitive
+            for (String username : contribution.usernames()) {
+                byUsername.putIfAbsent(username.toLowerCase(Locale.ROOT), contributor);
+            }
+            for (String repository : contributor.repositories()) {
+                byRepository.computeIfAbsent(repository, r -> new ArrayList<>()).add(contributor);
+            }
+        }
+
+        List<Contributor> all() {
+            return contributors;
+        }
+
+        List<Contributor> top(int count) {
+            return contributors.subList(0, Math.min(count, contributors.size()));
+        }
+
+        Contributor byEmail(String email) {
+            return byEmail.get(email.toLowerCase(Locale.ROOT));
+        }
+
+        Contributor byUsername(String username) {
+            return byUsername.get(username.toLowerCase(Locale.ROOT));
+        }
+
+        List<Contributor> byRepository(String repository) {
+            return byRepository.getOrDefault(repository, List.of());
+        }
+    }
+
     public static class Contribution {
 
         public String author;
         public String email;
         public String username;
         public int commits;
-        public Set<String> repositories = new TreeSet<>();
+        /**
+         * The ids of the repositories in {@link #repositoryIds}.
+         */
+        public BitSet repositories;
+        private final RepositoryIds repositoryIds;
+        // all the emails and handles of the identity, the ones above included
+        private final Set<String> emails;
+        private final Set<String> usernames;
+
+        public Contribution(String author, String email, String username, int commits, BitSet repositories,
+                RepositoryIds repositoryIds) {
+            this(author, email, username, commits, repositories, repositoryIds,
+                    email.isEmpty() ? Set.of() : Set.of(email), username.isEmpty() ? Set.of() : Set.of(username));
+        }
 
-        public Contribution(String author, String email, String username, String repository) {
+        Contribution(String author, String email, String username, int commits, BitSet repositories,
+                RepositoryIds repositoryIds, Set<String> emails, Set<String> usernames) {
             this.author = author;
             this.email = email;
             this.username = username;
-            this.commits = 1;
-            this.repositories.add(repository);
+            this.commits = commits;
+            this.repositories = repositories;
+            this.repositoryIds = repositoryIds;
+            this.emails = emails;
+            this.usernames = usernames;
+        }
+
+        /**
+         * The names are only materialized when needed, typically when writing the contribution.
+         */
+        public List<String> repositoryNames() {
+            return repositoryIds.sortedNames(repositories);
+        }
+
+        Set<String> emails() {
+            return emails;
+        }
+
+        Set<String> usernames() {
+            return usernames;
+        }
+    }
+
+    /**
+     * Interns the names of the repositories so that the repositories of a contributor are stored as a bitset of ids.
+     * <p>
+     * The ids are attributed in the order in which the repositories are seen, the names are sorted when they are
+     * materialized.
+     */
+    public static final class RepositoryIds {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        // the alphabetical rank of each id and the name of each rank, computed lazily for the current names
+        private int[] ranks = new int[0];
+        private String[] sortedNames = new String[0];
+
+        public int id(String repository) {
+            Integer id = ids.get(repository);
+            if (id == null) {
+                id = names.size();
+                ids.put(repository, id);
+                names.add(repository);
+            }
+            return id;
+        }
+
+        List<String> sortedNames(BitSet repositories) {
+            if (ranks.length != names.size()) {
+                rank();
+            }
+
+            int[] repositoryRanks = new int[repositories.cardinality()];
+            int i = 0;
+            for (int id = repositories.nextSetBit(0); id >= 0; id = repositories.nextSetBit(id + 1)) {
+                repositoryRanks[i++] = ranks[id];
+            }
+            Arrays.sort(repositoryRanks);
+
+            String[] repositoryNames = new String[repositoryRanks.length];
+            for (i = 0; i < repositoryRanks.length; i++) {
+                repositoryNames[i] = sortedNames[repositoryRanks[i]];
+            }
+            return Arrays.asList(repositoryNames);
+        }
+
+        private void rank() {
+            sortedNames = names.toArray(new String[0]);
+            Arrays.sort(sortedNames);
+            ranks = new int[sortedNames.length];
+            for (int rank = 0; rank < sortedNames.length; rank++) {
+                ranks[ids.get(sortedNames[rank])] = rank;
+            }
         }
     }
 
@@ -411,4 +2668,180 @@ public class GetContributors implements Callable<Integer> {
 
         abstract void sort(List<Contribution> contributions);
     }
+
+    public enum CloneStrategy {
+
+        /**
+         * Full clone with a working tree.
+         */
+        full {
+            @Override
+            String filter(Clone clone) {
+                return null;
+            }
+        },
+        /**
+         * Partial clone without the blobs and without a working tree.
+         * <p>
+         * The history is shallowed to the analyzed window when the log is not path-limited.
+         */
+        blobless {
+            @Override
+            String filter(Clone clone) {
+                return "blob:none";
+            }
+        },
+        /**
+         * Partial clone without the blobs and the trees and without a working tree.
+         * <p>
+         * The history is shallowed to the analyzed window when the log is not path-limited.
+         * Path-limited logs need the trees so we fall back to a blobless clone for them.
+         */
+        treeless {
+            @Override
+            String filter(Clone clone) {
+                return clone.isPathLimited() ? "blob:none" : "tree:0";
+            }
+        };
+
+        abstract String filter(Clone clone);
+    }
+
+    public enum CommitGraph {
+
+        /**
+         * No commit-graph is written by the script.
+         */
+        off,
+        /**
+         * A commit-graph with changed-path Bloom filters is written and updated for the clones analyzed for a
+         * subdirectory.
+         */
+        on,
+        /**
+         * Same as {@link #on} but the path-limited logs are also run without the Bloom filters to report the speedup.
+         */
+        compare
+    }
+
+    public enum Discovery {
+
+        /**
+         * Searches and gets the repositories with the REST API, the responses being cached and revalidated.
+         */
+        rest,
+        /**
+         * Gets the repositories with a few batched GraphQL queries, requires a token.
+         */
+        graphql
+    }
+
+    public enum OutputFormat {
+
+        /**
+         * {@code ;} separated CSV file with a header row.
+         */
+        csv("csv") {
+            @Override
+            ContributionWriter open(Path file) throws IOException {
+                return new CsvContributionWriter(file);
+            }
+        },
+        /**
+         * One JSON object per line.
+         */
+        jsonl("jsonl") {
+            @Override
+            ContributionWriter open(Path file) throws IOException {
+                return new JsonLinesContributionWriter(file);
+            }
+        },
+        /**
+         * Compact binary snapshot, see {@link BinarySnapshot}.
+         */
+        binary("bin") {
+            @Override
+            ContributionWriter open(Path file) throws IOException {
+                return new BinarySnapshot.Writer(file);
+            }
+        };
+
+        private final String extension;
+
+        OutputFormat(String extension) {
+            this.extension = extension;
+        }
+
+        Path file(String fileName) {
+            return Path.of(fileName + "." + extension);
+        }
+
+        abstract ContributionWriter open(Path file) throws IOException;
+    }
+
+    /**
+     * Writes the contributions to a file, through a single buffered stream.
+     */
+    interface ContributionWriter extends Closeable {
+
+        void write(Contribution contribution) throws IOException;
+    }
+
+    private static class CsvContributionWriter implements ContributionWriter {
+
+        private final Writer writer;
+
+        private CsvContributionWriter(Path file) throws IOException {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writer.write("Name;Email;GH handle if no email;Commits;Repositories\n");
+        }
+
+        @Override
+        public void write(Contribution contribution) throws IOException {
+            writer.write("\"" + contribution.author + "\";\"" + contribution.email + "\";" + contribution.username + ";"
+                    + contribution.commits + ";"
+                    + String.join(",", contribution.repositoryNames()) + "\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static class JsonLinesContributionWriter implements ContributionWriter {
+
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        private JsonLinesContributionWriter(Path file) throws IOException {
+            this.generator = OBJECT_MAPPER.getFactory().createGenerator(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void write(Contribution contribution) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("name", contribution.author);
+            generator.writeStringField("email", contribution.email);
+            generator.writeStringField("username", contribution.username);
+            generator.writeNumberField("commits", contribution.commits);
+            generator.writeArrayFieldStart("repositories");
+            for (String repository : contribution.repositoryNames()) {
+                generator.writeString(repository);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the pretty printer only separates the root values, an empty file has no line to end
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package io.quarkus.bot;
+
+import static io.quarkus.bot.GetContributors.OBJECT_MAPPER;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.quarkus.bot.GetContributors.GitHubUsage;
+
+/**
+ * Posts GraphQL queries to the GitHub API, the requests being scheduled by a {@link RateLimitScheduler}.
+ */
+class GraphQLClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+    private final URI endpoint;
+    private final String token;
+    private final RateLimitScheduler scheduler;
+    private int requests;
+
+    GraphQLClient(String apiUrl, String token, RateLimitScheduler scheduler) {
+        this.endpoint = URI.create(apiUrl.replaceAll("/+$", "") + "/graphql");
+        this.token = token;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return the data of the response
+     */
+    JsonNode query(String query) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .header("Authorization", "bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(1))
+                .POST(BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(Map.of("query", query))))
+                .build();
+
+        for (int attempt = 1;; attempt++) {
+            scheduler.pace();
+            HttpResponse<byte[]> response = httpClient.send(request, BodyHandlers.ofByteArray());
+            requests++;
+
+            JsonNode body = parse(response.body());
+            boolean rateLimited = isRateLimited(body);
+            Duration retryDelay = scheduler.onResponse(response.statusCode(), response.headers(), rateLimited, attempt);
+            if (retryDelay != null) {
+                scheduler.sleep(retryDelay, rateLimited ? "the GraphQL query has been rate limited"
+                        : "the GraphQL query failed with status " + response.statusCode());
+                continue;
+            }
+
+            if (response.statusCode() != HttpURLConnection.HTTP_OK || body.path("errors").size() > 0) {
+                throw new IllegalStateException("Error querying " + endpoint + " - status: " + response.statusCode()
+                        + " - error: " + (body.has("errors") ? body.get("errors") : body.path("message").asText()));
+            }
+            return body.get("data");
+        }
+    }
+
+    GitHubUsage usage() {
+        return scheduler.usage(requests);
+    }
+
+    /**
+     * The gateway errors don't have a JSON body.
+     */
+    private static JsonNode parse(byte[] body) {
+        try {
+            return OBJECT_MAPPER.readTree(body);
+        } catch (IOException e) {
+            return OBJECT_MAPPER.createObjectNode();
+        }
+    }
+
+    /**
+     * The primary rate limit of GraphQL is reported as an error of the query, the secondary rate limits as a 403.
+     */
+    private static boolean isRateLimited(JsonNode body) {
+        for (JsonNode error : body.path("errors")) {
+            if ("RATE_LIMITED".equals(error.path("type").asText())) {
+                return true;
+            }
+        }
+        return body.path("message").asText().contains("rate limit");
+    }
+}
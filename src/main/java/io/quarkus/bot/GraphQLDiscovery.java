@@ -0,0 +1,130 @@
+package io.quarkus.bot;
+
+import static io.quarkus.bot.GetContributors.OBJECT_MAPPER;
+import static io.quarkus.bot.GetContributors.PLATFORM_PROJECTS;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.quarkus.bot.GetContributors.DiscoveredRepositories;
+import io.quarkus.bot.GetContributors.Repository;
+
+/**
+ * Discovers the repositories with a few batched GraphQL queries, only fetching the fields we need.
+ * <p>
+ * Each query gets up to {@link #BATCH_SIZE} repositories by name and the next page of each search.
+ */
+class GraphQLDiscovery {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int PAGE_SIZE = 100;
+    private static final String REPOSITORY_FIELDS = "name nameWithOwner sshUrl defaultBranchRef { name }";
+
+    private final GraphQLClient client;
+
+    GraphQLDiscovery(GraphQLClient client) {
+        this.client = client;
+    }
+
+    DiscoveredRepositories discover() throws IOException, InterruptedException {
+        // the iteration order of Map.ofEntries() changes from one run to another so we sort the projects
+        List<String> platformProjects = new ArrayList<>(new TreeSet<>(PLATFORM_PROJECTS.keySet()));
+        List<String> names = new ArrayList<>();
+        names.add("quarkusio/quarkus");
+        names.addAll(platformProjects);
+
+        Search quarkiverseExtensions = new Search("org:quarkiverse topic:quarkus-extension");
+        Search websiteTranslationsRepositories = new Search("org:quarkusio topic:translation");
+        List<Search> searches = List.of(quarkiverseExtensions, websiteTranslationsRepositories);
+
+        Map<String, Repository> repositories = new HashMap<>();
+        int next = 0;
+        while (next < names.size() || searches.stream().anyMatch(search -> search.hasNextPage)) {
+            List<String> batch = names.subList(next, Math.min(next + BATCH_SIZE, names.size()));
+            List<Search> pagedSearches = searches.stream().filter(search -> search.hasNextPage).toList();
+
+            StringBuilder query = new StringBuilder("query {\n");
+            for (int i = 0; i < batch.size(); i++) {
+                String[] ownerAndName = batch.get(i).split("/");
+                query.append("  r").append(i).append(": repository(owner: ").append(literal(ownerAndName[0]))
+                        .append(", name: ").append(literal(ownerAndName[1])).append(") { ").append(REPOSITORY_FIELDS)
+                        .append(" }\n");
+            }
+            for (int i = 0; i < pagedSearches.size(); i++) {
+                Search search = pagedSearches.get(i);
+                query.append("  s").append(i).append(": search(query: ").append(literal(search.query))
+                        .append(", type: REPOSITORY, first: ").append(PAGE_SIZE)
+                        .append(search.cursor != null ? ", after: " + literal(search.cursor) : "")
+                        .append(") { pageInfo { hasNextPage endCursor } nodes { ... on Repository { ")
+                        .append(REPOSITORY_FIELDS).append(" } } }\n");
+            }
+            query.append("}");
+
+            JsonNode data = client.query(query.toString());
+
+            for (int i = 0; i < batch.size(); i++) {
+                JsonNode node = data.get("r" + i);
+                if (isEmpty(node)) {
+                    throw new IllegalStateException("Repository " + batch.get(i)
+                            + " is empty, it has no default branch to analyze");
+                }
+                repositories.put(batch.get(i), repository(node));
+            }
+            for (int i = 0; i < pagedSearches.size(); i++) {
+                Search search = pagedSearches.get(i);
+                JsonNode page = data.get("s" + i);
+                for (JsonNode node : page.get("nodes")) {
+                    if (isEmpty(node)) {
+                        System.out.println(" > Skipping " + node.get("nameWithOwner").asText()
+                                + ": the repository is empty");
+                        continue;
+                    }
+                    search.repositories.add(repository(node));
+                }
+                search.hasNextPage = page.get("pageInfo").get("hasNextPage").asBoolean();
+                search.cursor = page.get("pageInfo").get("endCursor").asText(null);
+            }
+            next += batch.size();
+        }
+
+        return new DiscoveredRepositories(repositories.get("quarkusio/quarkus"), quarkiverseExtensions.repositories,
+                platformProjects.stream().map(repositories::get).toList(), websiteTranslationsRepositories.repositories);
+    }
+
+    /**
+     * An empty repository has no default branch: there is nothing to clone or analyze.
+     */
+    private static boolean isEmpty(JsonNode node) {
+        return node.path("defaultBranchRef").path("name").asText(null) == null;
+    }
+
+    private static Repository repository(JsonNode node) {
+        return new Repository(node.get("name").asText(), node.get("nameWithOwner").asText(), node.get("sshUrl").asText(),
+                node.get("defaultBranchRef").get("name").asText());
+    }
+
+    /**
+     * The GraphQL strings are escaped as the JSON ones.
+     */
+    private static String literal(String value) throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(value);
+    }
+
+    private static class Search {
+
+        private final String query;
+        private final List<Repository> repositories = new ArrayList<>();
+        private String cursor;
+        private boolean hasNextPage = true;
+
+        private Search(String query) {
+            this.query = query;
+        }
+    }
+}
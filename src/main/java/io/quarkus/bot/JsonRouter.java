@@ -0,0 +1,163 @@
+package io.quarkus.bot;
+
+import static io.quarkus.bot.GetContributors.OBJECT_MAPPER;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Routes the {@code GET} requests of a small JSON over HTTP API served by the JDK HTTP server.
+ * <p>
+ * The routes are matched in order on the path, a {@code {name}} segment of a route matching any segment. The errors
+ * have a {@code message}, as the GitHub ones. The stub GitHub API of the benchmarks extends it to route other methods
+ * and add headers to the responses.
+ */
+class JsonRouter {
+
+    private final List<Route> routes = new ArrayList<>();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    JsonRouter get(String path, RequestHandler handler) {
+        routes.add(new Route(path.substring(1).split("/", -1), handler));
+        return this;
+    }
+
+    JsonRouter start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Routes a request to the handler of the first matching route.
+     */
+    Response route(HttpExchange exchange) throws IOException {
+        String[] segments = exchange.getRequestURI().getPath().substring(1).split("/", -1);
+        for (Route route : routes) {
+            Map<String, String> pathParameters = route.match(segments);
+            if (pathParameters == null) {
+                continue;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                return Response.error(405, "Method " + exchange.getRequestMethod() + " is not supported");
+            }
+            return route.handler().handle(new Request(exchange, pathParameters, parameters(exchange.getRequestURI())));
+        }
+        return Response.error(404, "Unknown path " + exchange.getRequestURI().getPath());
+    }
+
+    /**
+     * @param body the body of the response, serialized
+     */
+    void send(HttpExchange exchange, Response response, byte[] body) throws IOException {
+        response.headers().forEach(exchange.getResponseHeaders()::set);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = route(exchange);
+            } catch (RuntimeException e) {
+                response = Response.error(500, e.toString());
+            }
+
+            send(exchange, response, OBJECT_MAPPER.writeValueAsBytes(response.body()));
+        }
+    }
+
+    private static Map<String, String> parameters(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        if (uri.getRawQuery() == null) {
+            return parameters;
+        }
+        for (String parameter : uri.getRawQuery().split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    interface RequestHandler {
+
+        Response handle(Request request) throws IOException;
+    }
+
+    /**
+     * @param pathParameters the segments matched by the {@code {name}} segments of the route
+     * @param parameters the decoded query parameters
+     */
+    record Request(HttpExchange exchange, Map<String, String> pathParameters, Map<String, String> parameters) {
+    }
+
+    /**
+     * @param headers the headers of the response
+     */
+    record Response(int status, Object body, Map<String, String> headers) {
+
+        Response(int status, Object body) {
+            this(status, body, Map.of());
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, Map.of("message", message));
+        }
+
+        static Response ofNullable(Object body, String notFoundMessage) {
+            return body != null ? new Response(200, body) : error(404, notFoundMessage);
+        }
+    }
+
+    private record Route(String[] segments, RequestHandler handler) {
+
+        /**
+         * @return the path parameters, null if the path doesn't match
+         */
+        private Map<String, String> match(String[] pathSegments) {
+            if (pathSegments.length != segments.length) {
+                return null;
+            }
+            Map<String, String> pathParameters = new HashMap<>();
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].startsWith("{") && segments[i].endsWith("}")) {
+                    pathParameters.put(segments[i].substring(1, segments[i].length() - 1), pathSegments[i]);
+                } else if (!segments[i].equals(pathSegments[i])) {
+                    return null;
+                }
+            }
+            return pathParameters;
+        }
+    }
+}
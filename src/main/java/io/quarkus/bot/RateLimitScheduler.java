@@ -0,0 +1,75 @@
+package io.quarkus.bot;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import io.quarkus.bot.GetContributors.GitHubUsage;
+
+/**
+ * Schedules the requests according to the rate limit headers of the previous responses.
+ * <p>
+ * When the remaining points go under {@link #RESERVE}, the next request waits for the reset of the rate limit.
+ * The rate limited and failed requests are retried after the delay asked by GitHub if any, at the reset of the
+ * rate limit if it is exhausted, with an exponential backoff otherwise.
+ */
+class RateLimitScheduler {
+
+    private static final int RESERVE = 10;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+
+    private int limit = -1;
+    private int remaining = -1;
+    private Instant reset;
+
+    void pace() throws InterruptedException {
+        if (reset != null && reset.isAfter(Instant.now()) && remaining >= 0 && remaining <= RESERVE) {
+            sleep(untilReset(), "only " + remaining + " points left in the rate limit");
+        }
+    }
+
+    /**
+     * @return the delay before retrying the request, null if the response is final
+     */
+    Duration onResponse(int status, HttpHeaders headers, boolean rateLimited, int attempt) {
+        headers.firstValue("X-RateLimit-Limit").ifPresent(value -> limit = Integer.parseInt(value));
+        headers.firstValue("X-RateLimit-Remaining").ifPresent(value -> remaining = Integer.parseInt(value));
+        headers.firstValue("X-RateLimit-Reset").ifPresent(value -> reset = Instant.ofEpochSecond(Long.parseLong(value)));
+        Optional<String> retryAfter = headers.firstValue("Retry-After");
+
+        boolean retryable = rateLimited || status == 429 || status >= 500
+                || (status == 403 && (remaining == 0 || retryAfter.isPresent()));
+        if (!retryable || attempt >= MAX_ATTEMPTS) {
+            return null;
+        }
+        if (retryAfter.isPresent()) {
+            return Duration.ofSeconds(Long.parseLong(retryAfter.get()));
+        }
+        if (remaining == 0 && reset != null) {
+            return untilReset();
+        }
+        return INITIAL_BACKOFF.multipliedBy(1L << (attempt - 1));
+    }
+
+    /**
+     * The GraphQL API doesn't have conditional requests.
+     */
+    GitHubUsage usage(int requests) {
+        return new GitHubUsage(requests, 0, limit, remaining, reset != null ? reset.toString() : null);
+    }
+
+    void sleep(Duration delay, String reason) throws InterruptedException {
+        System.out.println("Waiting " + delay.toSeconds() + " s: " + reason);
+        Thread.sleep(delay.toMillis());
+    }
+
+    /**
+     * The reset is rounded to the second so we wait an extra second.
+     */
+    private Duration untilReset() {
+        Duration delay = Duration.between(Instant.now(), reset).plusSeconds(1);
+        return delay.isNegative() ? Duration.ZERO : delay;
+    }
+}
@@ -0,0 +1,170 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.quarkus.bot.GetContributors.Author;
+import io.quarkus.bot.GetContributors.Checkpoint;
+import io.quarkus.bot.GetContributors.CheckpointAuthor;
+import io.quarkus.bot.GetContributors.Checkpoints;
+import io.quarkus.bot.GetContributors.CommitHashes;
+import io.quarkus.bot.GetContributors.RepositoryCommits;
+
+class CheckpointsTest {
+
+    private static final String WINDOWS = "2022-06-01,2023-01-25";
+
+    private static final Author ALICE = new Author("Alice", "alice@example.com");
+    private static final Author BOB = new Author("Bob", "bob@example.com");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savesAndLoadsTheCheckpoints() throws IOException {
+        Path file = directory.resolve("checkpoints.json");
+        Checkpoints checkpoints = Checkpoints.load(file);
+        assertNull(checkpoints.get("quarkiverse/quarkus-a:."));
+
+        checkpoints.put("quarkiverse/quarkus-a:.", Checkpoint.of(WINDOWS, "abc", repositoryCommits()));
+        checkpoints.save();
+
+        Checkpoint checkpoint = Checkpoints.load(file).get("quarkiverse/quarkus-a:.");
+        assertEquals(WINDOWS, checkpoint.windows());
+        assertEquals("abc", checkpoint.commit());
+        assertTrue(checkpoint.hasHashes());
+
+        RepositoryCommits repositoryCommits = checkpoint.repositoryCommits();
+        assertEquals(repositoryCommits().authorCommits().keySet(), repositoryCommits.authorCommits().keySet());
+        assertArrayEquals(new int[] { 2, 1 }, repositoryCommits.authorCommits().get(ALICE));
+        assertArrayEquals(new int[] { 1, 0 }, repositoryCommits.authorCommits().get(BOB));
+        assertEncodedEquals(repositoryCommits().hashes(), repositoryCommits.hashes());
+    }
+
+    @Test
+    void onlySavesTheCheckpointsOfTheCurrentRun() throws IOException {
+        Path file = directory.resolve("checkpoints.json");
+        Checkpoints checkpoints = Checkpoints.load(file);
+        checkpoints.put("quarkiverse/quarkus-a:.", Checkpoint.of(WINDOWS, "abc", repositoryCommits()));
+        checkpoints.save();
+
+        checkpoints = Checkpoints.load(file);
+        checkpoints.put("quarkiverse/quarkus-b:.", Checkpoint.of(WINDOWS, "def", repositoryCommits()));
+        checkpoints.save();
+
+        checkpoints = Checkpoints.load(file);
+        assertNull(checkpoints.get("quarkiverse/quarkus-a:."));
+        assertEquals("def", checkpoints.get("quarkiverse/quarkus-b:.").commit());
+    }
+
+    @Test
+    void resumesFromTheCheckpointWhenTheHeadIsUnchanged() throws IOException, InterruptedException {
+        Path repository = repository();
+        String head = commit(repository, "first");
+        Checkpoint checkpoint = Checkpoint.of(WINDOWS, head, repositoryCommits());
+
+        assertNull(checkpoint.fullAnalysisReason(WINDOWS, repository, head));
+    }
+
+    @Test
+    void resumesFromTheCheckpointWhenCommitsHaveBeenAdded() throws IOException, InterruptedException {
+        Path repository = repository();
+        Checkpoint checkpoint = Checkpoint.of(WINDOWS, commit(repository, "first"), repositoryCommits());
+
+        assertNull(checkpoint.fullAnalysisReason(WINDOWS, repository, commit(repository, "second")));
+    }
+
+    @Test
+    void analyzesAgainARewrittenHistory() throws IOException, InterruptedException {
+        Path repository = repository();
+        commit(repository, "first");
+        Checkpoint checkpoint = Checkpoint.of(WINDOWS, commit(repository, "second"), repositoryCommits());
+
+        git(repository, "reset", "--quiet", "--hard", "HEAD~1");
+        String head = commit(repository, "rewritten second");
+
+        assertEquals("its history has been rewritten", checkpoint.fullAnalysisReason(WINDOWS, repository, head));
+    }
+
+    @Test
+    void analyzesAgainWhenTheWindowsHaveChanged() throws IOException, InterruptedException {
+        Path repository = repository();
+        String head = commit(repository, "first");
+        Checkpoint checkpoint = Checkpoint.of(WINDOWS, head, repositoryCommits());
+
+        assertEquals("the windows have changed", checkpoint.fullAnalysisReason("2022-06-01", repository, head));
+    }
+
+    @Test
+    void analyzesAgainTheCheckpointsWithoutHashes() throws IOException, InterruptedException {
+        Path repository = repository();
+        String head = commit(repository, "first");
+        // a checkpoint of a previous version
+        Checkpoint checkpoint = new Checkpoint(WINDOWS, head,
+                List.of(new CheckpointAuthor(ALICE.name(), ALICE.email(), new int[] { 1, 1 }, null)));
+
+        assertFalse(checkpoint.hasHashes());
+        assertEquals("its checkpoint doesn't have the commit hashes",
+                checkpoint.fullAnalysisReason(WINDOWS, repository, head));
+    }
+
+    private static RepositoryCommits repositoryCommits() {
+        Map<Author, int[]> authorCommits = new HashMap<>();
+        authorCommits.put(ALICE, new int[] { 2, 1 });
+        authorCommits.put(BOB, new int[] { 1, 0 });
+
+        CommitHashes hashes = new CommitHashes();
+        hashes.add(0x1234_5678_9abc_def0L, 0x89ab_cdef, 1, ALICE);
+        hashes.add(-1L, -1, 0, ALICE);
+        hashes.add(42L, 42, 0, BOB);
+
+        return new RepositoryCommits(authorCommits, hashes);
+    }
+
+    private static void assertEncodedEquals(CommitHashes expected, CommitHashes actual) {
+        Map<Author, byte[]> expectedHashes = expected.encode();
+        Map<Author, byte[]> actualHashes = actual.encode();
+        assertEquals(expectedHashes.keySet(), actualHashes.keySet());
+        expectedHashes.forEach((author, hashes) -> assertArrayEquals(hashes, actualHashes.get(author)));
+    }
+
+    private Path repository() throws IOException, InterruptedException {
+        Path repository = Files.createDirectory(directory.resolve("repository"));
+        git(repository, "init", "--quiet");
+        return repository;
+    }
+
+    private static String commit(Path repository, String message) throws IOException, InterruptedException {
+        git(repository, "-c", "user.name=Alice", "-c", "user.email=alice@example.com", "commit", "--quiet", "--allow-empty",
+                "-m", message);
+        return git(repository, "rev-parse", "HEAD");
+    }
+
+    private static String git(Path repository, String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command)
+                .directory(repository.toFile())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertEquals(0, process.waitFor(), output);
+        return output;
+    }
+}
@@ -0,0 +1,94 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.bot.GetContributors.Author;
+import io.quarkus.bot.GetContributors.CommitHashes;
+import io.quarkus.bot.GetContributors.Windows;
+
+class CommitHashesTest {
+
+    private static final Author ALICE = new Author("Alice", "alice@example.com");
+    private static final Author BOB = new Author("Bob", "bob@example.com");
+
+    @Test
+    void parsesTheHexadecimalHashes() {
+        CommitHashes hashes = new CommitHashes();
+        byte[] hash = "0123456789abcdef89abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        hashes.add(hash, 0, 1, ALICE);
+
+        assertEquals(1, hashes.size());
+        assertEquals(0x0123_4567_89ab_cdefL, hashes.prefix(0));
+        assertEquals(0x89ab_cdef, hashes.check(0));
+        assertEquals(1, hashes.window(0));
+        assertEquals(ALICE, hashes.author(0));
+    }
+
+    @Test
+    void decodesTheEncodedHashes() {
+        CommitHashes hashes = new CommitHashes();
+        hashes.add(0x1234_5678_9abc_def0L, 0x89ab_cdef, 0, ALICE);
+        hashes.add(-1L, -1, 2, BOB);
+        hashes.add(0, 0, 1, ALICE);
+        // more hashes than the initial capacity
+        for (int i = 0; i < 100; i++) {
+            hashes.add(i * 31L, i, i % 3, BOB);
+        }
+
+        Map<Author, byte[]> encodedHashes = hashes.encode();
+
+        assertEquals(2 * CommitHashes.BYTES, encodedHashes.get(ALICE).length);
+        assertEquals(101 * CommitHashes.BYTES, encodedHashes.get(BOB).length);
+
+        CommitHashes decodedHashes = new CommitHashes();
+        decodedHashes.decode(ALICE, encodedHashes.get(ALICE));
+        decodedHashes.decode(BOB, encodedHashes.get(BOB));
+
+        assertEquals(hashes(hashes), hashes(decodedHashes));
+    }
+
+    @Test
+    void keepsTheWindowsUpToTheLastOne() {
+        CommitHashes hashes = new CommitHashes();
+        hashes.add(1L, 1, Windows.MAX_WINDOWS - 1, ALICE);
+
+        CommitHashes decodedHashes = new CommitHashes();
+        decodedHashes.decode(ALICE, hashes.encode().get(ALICE));
+
+        assertEquals(Windows.MAX_WINDOWS - 1, hashes.window(0));
+        assertEquals(Windows.MAX_WINDOWS - 1, decodedHashes.window(0));
+    }
+
+    @Test
+    void rejectsMoreWindowsThanTheHashesCanStore() {
+        List<Date> since = new ArrayList<>();
+        for (int i = 0; i < Windows.MAX_WINDOWS; i++) {
+            since.add(new Date(i * 86_400_000L));
+        }
+        assertEquals(Windows.MAX_WINDOWS, Windows.of(since).size());
+
+        since.add(new Date(Windows.MAX_WINDOWS * 86_400_000L));
+        assertThrows(IllegalArgumentException.class, () -> Windows.of(since));
+    }
+
+    private static Set<String> hashes(CommitHashes hashes) {
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            values.add(hashes.prefix(i) + " " + hashes.check(i) + " " + hashes.window(i) + " " + hashes.author(i));
+        }
+        assertEquals(hashes.size(), values.size());
+        return values;
+    }
+}
@@ -0,0 +1,91 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.bot.GetContributors.CommitSet;
+
+class CommitSetTest {
+
+    @Test
+    void addsEachCommitOnce() {
+        CommitSet commits = new CommitSet();
+
+        assertTrue(commits.add(0x1234_5678_9abc_def0L, 42));
+        assertTrue(commits.add(0x0fed_cba9_8765_4321L, 42));
+        assertFalse(commits.add(0x1234_5678_9abc_def0L, 42));
+
+        assertEquals(2, commits.size());
+    }
+
+    @Test
+    void keepsTheCommitsSharingAPrefix() {
+        CommitSet commits = new CommitSet();
+
+        assertTrue(commits.add(0x1234_5678_9abc_def0L, 1));
+        assertTrue(commits.add(0x1234_5678_9abc_def0L, 2));
+        assertTrue(commits.add(0x1234_5678_9abc_def0L, 3));
+
+        assertFalse(commits.add(0x1234_5678_9abc_def0L, 1));
+        assertFalse(commits.add(0x1234_5678_9abc_def0L, 2));
+        assertFalse(commits.add(0x1234_5678_9abc_def0L, 3));
+        assertEquals(3, commits.size());
+    }
+
+    @Test
+    void keepsTheZeroPrefix() {
+        CommitSet commits = new CommitSet();
+
+        assertTrue(commits.add(0, 0));
+        assertTrue(commits.add(0, 7));
+        assertFalse(commits.add(0, 0));
+        assertFalse(commits.add(0, 7));
+
+        assertEquals(2, commits.size());
+    }
+
+    @Test
+    void keepsAllTheCommitsWhenGrowing() {
+        CommitSet commits = new CommitSet();
+        // the prefixes share their low bits so that they collide in the slots
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            assertTrue(commits.add(prefix(i), i));
+        }
+        // a prefix collision before and after the rehashes
+        assertTrue(commits.add(prefix(0), -1));
+        assertEquals(count + 1, commits.size());
+
+        for (int i = 0; i < count; i++) {
+            assertFalse(commits.add(prefix(i), i));
+        }
+        assertFalse(commits.add(prefix(0), -1));
+        assertTrue(commits.add(prefix(count), count));
+        assertEquals(count + 2, commits.size());
+    }
+
+    @Test
+    void addsRandomCommits() {
+        CommitSet commits = new CommitSet();
+        SplittableRandom random = new SplittableRandom(42);
+        long[] prefixes = new long[50_000];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = random.nextLong();
+            assertTrue(commits.add(prefixes[i], (int) prefixes[i]));
+        }
+
+        for (long prefix : prefixes) {
+            assertFalse(commits.add(prefix, (int) prefix));
+        }
+        assertEquals(prefixes.length, commits.size());
+    }
+
+    private static long prefix(int i) {
+        return ((long) i << 32) | 0x10;
+    }
+}
@@ -0,0 +1,133 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.bot.GetContributors.Author;
+import io.quarkus.bot.GetContributors.CommitHashes;
+import io.quarkus.bot.GetContributors.Contribution;
+import io.quarkus.bot.GetContributors.ContributionAggregate;
+import io.quarkus.bot.GetContributors.RepositoryCommits;
+import io.quarkus.bot.GetContributors.RepositoryIds;
+
+class ContributionAggregateTest {
+
+    private static final int WINDOWS = 2;
+
+    private static final Author ALICE = new Author("Alice", "alice@example.com");
+    private static final Author BOB = new Author("Bob", "bob@example.com");
+
+    @Test
+    void countsOnceTheCommitsPresentInSeveralRepositories() {
+        RepositoryIds repositoryIds = new RepositoryIds();
+        ContributionAggregate aggregate = new ContributionAggregate(WINDOWS);
+        // the fork has the commit 1 of the original repository and one of its own
+        aggregate.merge(repository(repositoryIds, "quarkiverse/quarkus-a", commit(1, 1, ALICE), commit(2, 0, BOB)));
+        aggregate.merge(repository(repositoryIds, "alice/quarkus-a", commit(1, 1, ALICE), commit(3, 1, ALICE)));
+
+        assertEquals(List.of(
+                "Alice <alice@example.com> 2 [alice/quarkus-a, quarkiverse/quarkus-a]",
+                "Bob <bob@example.com> 1 [quarkiverse/quarkus-a]"), contributions(aggregate, 0, repositoryIds));
+        assertEquals(List.of("Alice <alice@example.com> 2 [alice/quarkus-a, quarkiverse/quarkus-a]"),
+                contributions(aggregate, 1, repositoryIds));
+        assertEquals(1, aggregate.duplicateCommits(0));
+        assertEquals(1, aggregate.duplicateCommits(1));
+    }
+
+    @Test
+    void countsOnceTheCommitsPresentInSeveralCategories() {
+        RepositoryIds repositoryIds = new RepositoryIds();
+        ContributionAggregate quarkiverse = new ContributionAggregate(WINDOWS);
+        quarkiverse.merge(repository(repositoryIds, "quarkiverse/quarkus-a", commit(1, 1, ALICE), commit(2, 0, BOB)));
+        ContributionAggregate platform = new ContributionAggregate(WINDOWS);
+        platform.merge(repository(repositoryIds, "quarkusio/quarkus-platform", commit(1, 1, ALICE), commit(3, 0, BOB)));
+
+        ContributionAggregate all = new ContributionAggregate(WINDOWS);
+        all.merge(quarkiverse);
+        all.merge(platform);
+
+        assertEquals(List.of(
+                "Bob <bob@example.com> 2 [quarkiverse/quarkus-a, quarkusio/quarkus-platform]",
+                "Alice <alice@example.com> 1 [quarkiverse/quarkus-a, quarkusio/quarkus-platform]"),
+                contributions(all, 0, repositoryIds));
+        assertEquals(1, all.duplicateCommits(0));
+        assertEquals(1, all.duplicateCommits(1));
+    }
+
+    @Test
+    void givesTheSameContributionsWhateverTheMergeOrder() {
+        List<List<Commit>> repositories = List.of(
+                List.of(commit(1, 1, ALICE), commit(2, 0, BOB), commit(3, 0, ALICE)),
+                List.of(commit(1, 1, ALICE), commit(4, 1, BOB)),
+                List.of(commit(2, 0, BOB), commit(4, 1, BOB), commit(5, 1, ALICE)));
+
+        List<String> expected = null;
+        for (int[] order : new int[][] { { 0, 1, 2 }, { 0, 2, 1 }, { 1, 0, 2 }, { 1, 2, 0 }, { 2, 0, 1 }, { 2, 1, 0 } }) {
+            RepositoryIds repositoryIds = new RepositoryIds();
+            ContributionAggregate aggregate = new ContributionAggregate(WINDOWS);
+            for (int repository : order) {
+                aggregate.merge(repository(repositoryIds, "quarkiverse/quarkus-" + repository,
+                        repositories.get(repository).toArray(new Commit[0])));
+            }
+
+            List<String> contributions = new ArrayList<>();
+            for (int window = 0; window < WINDOWS; window++) {
+                contributions.addAll(contributions(aggregate, window, repositoryIds));
+                contributions.add(aggregate.duplicateCommits(window) + " duplicates");
+            }
+            if (expected == null) {
+                expected = contributions;
+            }
+            assertEquals(expected, contributions);
+        }
+
+        assertEquals(List.of(
+                "Alice <alice@example.com> 3 [quarkiverse/quarkus-0, quarkiverse/quarkus-1, quarkiverse/quarkus-2]",
+                "Bob <bob@example.com> 2 [quarkiverse/quarkus-0, quarkiverse/quarkus-1, quarkiverse/quarkus-2]",
+                "3 duplicates",
+                "Alice <alice@example.com> 2 [quarkiverse/quarkus-0, quarkiverse/quarkus-1, quarkiverse/quarkus-2]",
+                "Bob <bob@example.com> 1 [quarkiverse/quarkus-1, quarkiverse/quarkus-2]",
+                "2 duplicates"), expected);
+    }
+
+    private static ContributionAggregate repository(RepositoryIds repositoryIds, String repository, Commit... commits) {
+        Map<Author, int[]> authorCommits = new HashMap<>();
+        CommitHashes hashes = new CommitHashes();
+        for (Commit commit : commits) {
+            int[] counts = authorCommits.computeIfAbsent(commit.author(), a -> new int[WINDOWS]);
+            for (int window = 0; window <= commit.window(); window++) {
+                counts[window]++;
+            }
+            hashes.add(commit.prefix(), (int) commit.prefix(), commit.window(), commit.author());
+        }
+        return ContributionAggregate.of(repositoryIds.id(repository), new RepositoryCommits(authorCommits, hashes), WINDOWS);
+    }
+
+    private static List<String> contributions(ContributionAggregate aggregate, int window, RepositoryIds repositoryIds) {
+        List<Contribution> contributions = aggregate.identityResolver(window, repositoryIds).contributions();
+        contributions.sort((c1, c2) -> Integer.compare(c2.commits, c1.commits));
+
+        List<String> descriptions = new ArrayList<>();
+        for (Contribution contribution : contributions) {
+            descriptions.add(contribution.author + " <" + contribution.email + "> " + contribution.commits + " "
+                    + contribution.repositoryNames());
+        }
+        return descriptions;
+    }
+
+    private static Commit commit(long prefix, int window, Author author) {
+        return new Commit(prefix, window, author);
+    }
+
+    /**
+     * A commit counted in the windows up to {@code window}.
+     */
+    private record Commit(long prefix, int window, Author author) {
+    }
+}
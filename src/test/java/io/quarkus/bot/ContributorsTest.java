@@ -0,0 +1,66 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.bot.GetContributors.Contributors;
+import io.quarkus.bot.GetContributors.IdentityResolver;
+import io.quarkus.bot.GetContributors.RepositoryIds;
+
+class ContributorsTest {
+
+    @Test
+    void findsTheContributorsByAnyOfTheirEmails() {
+        Contributors contributors = contributors();
+
+        assertEquals("alice@example.com", contributors.byEmail("alice@example.com").email());
+        assertEquals("alice@example.com", contributors.byEmail("Alice@Example.org").email());
+        assertEquals("Bob", contributors.byEmail("bob@example.com").name());
+        assertNull(contributors.byEmail("carol@example.com"));
+    }
+
+    @Test
+    void findsTheContributorsByAnyOfTheirHandles() {
+        Contributors contributors = contributors();
+
+        // Alice is served with her email but also committed with a noreply address
+        assertEquals("alice@example.com", contributors.byUsername("AliceLiddell").email());
+        assertEquals("bobby", contributors.byUsername("bobby").username());
+        assertEquals("bobby", contributors.byUsername("robert").username());
+        assertNull(contributors.byUsername("carol"));
+    }
+
+    @Test
+    void sortsTheContributorsByDecreasingNumberOfCommits() {
+        Contributors contributors = contributors();
+
+        assertEquals(List.of("Alice", "Bobby Tables", "Bob"),
+                contributors.top(10).stream().map(GetContributors.Contributor::name).toList());
+        assertEquals(List.of("Alice", "Bobby Tables"),
+                contributors.byRepository("quarkiverse/quarkus-a").stream().map(GetContributors.Contributor::name)
+                        .toList());
+    }
+
+    private static Contributors contributors() {
+        RepositoryIds repositoryIds = new RepositoryIds();
+        BitSet quarkus = new BitSet();
+        quarkus.set(repositoryIds.id("quarkusio/quarkus"));
+        BitSet extension = new BitSet();
+        extension.set(repositoryIds.id("quarkiverse/quarkus-a"));
+
+        IdentityResolver identityResolver = new IdentityResolver(repositoryIds);
+        identityResolver.push("Alice", "alice@example.com", 10, quarkus);
+        identityResolver.push("Alice", "alice@example.org", 2, quarkus);
+        identityResolver.push("Alice", "1+aliceliddell@users.noreply.github.com", 1, extension);
+        identityResolver.push("Bob", "bob@example.com", 1, quarkus);
+        identityResolver.push("Bobby Tables", "2+bobby@users.noreply.github.com", 3, extension);
+        identityResolver.push("Bobby Tables", "3+robert@users.noreply.github.com", 1, extension);
+
+        return Contributors.of(identityResolver.contributions());
+    }
+}
@@ -0,0 +1,225 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.bot.GetContributors.Author;
+import io.quarkus.bot.GetContributors.RepositoryCommits;
+import io.quarkus.bot.GetContributors.Windows;
+
+class CountAuthorCommitsTest {
+
+    private static final long OLD = 1_500_000_000L;
+    private static final long RECENT = 1_700_000_000L;
+
+    // a commit since OLD is counted in the first window, a commit since RECENT in both
+    private static final Windows WINDOWS = Windows.of(List.of(new Date(OLD * 1000), new Date(RECENT * 1000)));
+
+    @Test
+    void countsTheCommitsPerWindow() throws IOException {
+        RepositoryCommits commits = count(log(
+                record(1, "Alice", "alice@example.com", OLD),
+                record(2, "Alice", "alice@example.com", RECENT),
+                record(3, "Bob", "bob@example.com", RECENT + 1),
+                record(4, "Bob", "bob@example.com", OLD - 1)), Integer.MAX_VALUE);
+
+        assertEquals(Set.of(alice(), bob()), commits.authorCommits().keySet());
+        assertArrayEquals(new int[] { 2, 1 }, commits.authorCommits().get(alice()));
+        assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(bob()));
+        assertEquals(3, commits.hashes().size());
+    }
+
+    @Test
+    void readsTheRecordsSpanningSeveralReads() throws IOException {
+        byte[] log = log(
+                record(1, "Alice", "alice@example.com", OLD),
+                record(2, "Bob", "bob@example.com", RECENT),
+                record(3, "Alice", "alice@example.com", RECENT));
+
+        // whatever the read boundaries, the records are the same
+        for (int chunkSize : new int[] { 1, 2, 3, 7, 41, 64 }) {
+            RepositoryCommits commits = count(log, chunkSize);
+
+            assertEquals(Set.of(alice(), bob()), commits.authorCommits().keySet());
+            assertArrayEquals(new int[] { 2, 1 }, commits.authorCommits().get(alice()));
+            assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(bob()));
+            assertEquals(Set.of(hash(1), hash(2), hash(3)), hashes(commits));
+        }
+    }
+
+    @Test
+    void readsTheRecordsLongerThanTheBuffer() throws IOException {
+        String name = "A".repeat(100_000);
+
+        RepositoryCommits commits = count(log(
+                record(1, name, "long@example.com", RECENT),
+                record(2, "Bob", "bob@example.com", RECENT)), 8 * 1024);
+
+        assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(new Author(name, "long@example.com")));
+        assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(bob()));
+    }
+
+    @Test
+    void countsTheUnterminatedLastRecord() throws IOException {
+        // git log -z separates the records, the last one isn't terminated
+        String log = record(1, "Alice", "alice@example.com", OLD) + "\0" + record(2, "Bob", "bob@example.com", RECENT);
+
+        for (int chunkSize : new int[] { 1, 5, Integer.MAX_VALUE }) {
+            RepositoryCommits commits = count(log.getBytes(StandardCharsets.UTF_8), chunkSize);
+
+            assertArrayEquals(new int[] { 1, 0 }, commits.authorCommits().get(alice()));
+            assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(bob()));
+            assertEquals(Set.of(hash(1), hash(2)), hashes(commits));
+        }
+    }
+
+    @Test
+    void ignoresTheTruncatedLastRecord() throws IOException {
+        String log = record(1, "Alice", "alice@example.com", OLD) + "\0" + hash(2) + "\0Bob\0bob@example.com";
+
+        RepositoryCommits commits = count(log.getBytes(StandardCharsets.UTF_8), 3);
+
+        assertEquals(Set.of(alice()), commits.authorCommits().keySet());
+        assertEquals(1, commits.hashes().size());
+    }
+
+    @Test
+    void keepsTheEmptyNamesAndEmails() throws IOException {
+        RepositoryCommits commits = count(log(
+                record(1, "", "anonymous@example.com", RECENT),
+                record(2, "Alice", "", RECENT),
+                record(3, "Alice", "", OLD),
+                record(4, "Alice", "alice@example.com", RECENT)), 4);
+
+        assertEquals(Set.of(new Author("", "anonymous@example.com"), new Author("Alice", ""), alice()),
+                commits.authorCommits().keySet());
+        assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(new Author("", "anonymous@example.com")));
+        assertArrayEquals(new int[] { 2, 1 }, commits.authorCommits().get(new Author("Alice", "")));
+        assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(alice()));
+    }
+
+    @Test
+    void decodesTheNonAsciiAuthors() throws IOException {
+        // the multi-byte characters are split between the reads with a chunk of 1 byte
+        for (int chunkSize : new int[] { 1, Integer.MAX_VALUE }) {
+            RepositoryCommits commits = count(log(
+                    record(1, "José Müller", "JOSÉ@Exemple.fr", RECENT),
+                    record(2, "José Müller", "JOSÉ@Exemple.fr", OLD),
+                    record(3, "李雷", "lilei@example.cn", RECENT)), chunkSize);
+
+            assertArrayEquals(new int[] { 2, 1 },
+                    commits.authorCommits().get(new Author("José Müller", "josé@exemple.fr")));
+            assertArrayEquals(new int[] { 1, 1 }, commits.authorCommits().get(new Author("李雷", "lilei@example.cn")));
+        }
+    }
+
+    @Test
+    void separatesTheAuthorsDifferingByTheirEmail() throws IOException {
+        RepositoryCommits commits = count(log(
+                record(1, "Alice", "alice@example.com", RECENT),
+                record(2, "Alice", "alice@example.org", RECENT),
+                record(3, "Alice Liddell", "alice@example.com", RECENT)), Integer.MAX_VALUE);
+
+        assertEquals(3, commits.authorCommits().size());
+    }
+
+    @Test
+    void ignoresTheBots() throws IOException {
+        RepositoryCommits commits = count(log(
+                record(1, "dependabot[bot]", "49699333+dependabot[bot]@users.noreply.github.com", RECENT),
+                record(2, "Alice", "alice@example.com", RECENT),
+                record(3, "dependabot[bot]", "49699333+dependabot[bot]@users.noreply.github.com", RECENT)),
+                Integer.MAX_VALUE);
+
+        assertEquals(Set.of(alice()), commits.authorCommits().keySet());
+        assertEquals(Set.of(hash(2)), hashes(commits));
+    }
+
+    @Test
+    void countsManyDistinctAuthors() throws IOException {
+        // more authors than the initial capacity of the table, which is rehashed several times
+        int authors = 5_000;
+        String[] records = new String[authors * 2];
+        for (int i = 0; i < authors; i++) {
+            records[i] = record(i, "Author " + i, "author" + i + "@example.com", RECENT);
+            records[authors + i] = record(authors + i, "Author " + i, "author" + i + "@example.com", OLD);
+        }
+
+        RepositoryCommits commits = count(log(records), 1000);
+
+        Map<Author, int[]> authorCommits = commits.authorCommits();
+        assertEquals(authors, authorCommits.size());
+        for (int i = 0; i < authors; i++) {
+            assertArrayEquals(new int[] { 2, 1 }, authorCommits.get(new Author("Author " + i, "author" + i + "@example.com")));
+        }
+        assertEquals(authors * 2, commits.hashes().size());
+    }
+
+    private static RepositoryCommits count(byte[] log, int chunkSize) throws IOException {
+        return GetContributors.countAuthorCommits(new ChunkedInputStream(log, chunkSize), WINDOWS);
+    }
+
+    private static byte[] log(String... records) {
+        return String.join("\0", records).concat("\0").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String record(int commit, String name, String email, long commitTime) {
+        return hash(commit) + "\0" + name + "\0" + email + "\0" + commitTime;
+    }
+
+    private static String hash(int commit) {
+        return String.format("%016x", commit + 1) + "0".repeat(24);
+    }
+
+    private static Set<String> hashes(RepositoryCommits commits) {
+        Set<String> hashes = new HashSet<>();
+        for (int i = 0; i < commits.hashes().size(); i++) {
+            hashes.add(String.format("%016x%08x", commits.hashes().prefix(i), commits.hashes().check(i)) + "0".repeat(16));
+        }
+        return hashes;
+    }
+
+    private static Author alice() {
+        return new Author("Alice", "alice@example.com");
+    }
+
+    private static Author bob() {
+        return new Author("Bob", "bob@example.com");
+    }
+
+    /**
+     * Returns at most {@code chunkSize} bytes per read, as a pipe does.
+     */
+    private static final class ChunkedInputStream extends InputStream {
+
+        private final ByteArrayInputStream delegate;
+        private final int chunkSize;
+
+        private ChunkedInputStream(byte[] bytes, int chunkSize) {
+            this.delegate = new ByteArrayInputStream(bytes);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            return delegate.read(buffer, offset, Math.min(length, chunkSize));
+        }
+    }
+}
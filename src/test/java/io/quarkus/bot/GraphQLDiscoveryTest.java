@@ -0,0 +1,192 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.bot.GetContributors.DiscoveredRepositories;
+import io.quarkus.bot.GetContributors.Repository;
+
+class GraphQLDiscoveryTest {
+
+    // three pages of search results
+    private static final int EXTENSIONS = 250;
+    private static final List<String> TRANSLATIONS = List.of("quarkusio/ja.quarkus.io", "quarkusio/pt.quarkus.io");
+
+    private final List<Duration> delays = new ArrayList<>();
+    private final List<String> reasons = new ArrayList<>();
+    private final List<String> extensions = new ArrayList<>();
+    private GraphQLStub api;
+
+    @BeforeEach
+    void start() throws IOException {
+        for (int i = 1; i <= EXTENSIONS; i++) {
+            extensions.add(String.format("quarkiverse/quarkus-extension-%03d", i));
+        }
+        List<String> extensionsAndEmpty = new ArrayList<>(extensions);
+        extensionsAndEmpty.add("quarkiverse/quarkus-empty");
+        api = GraphQLStub.start(Map.of("quarkus-extension", extensionsAndEmpty, "translation", TRANSLATIONS));
+
+        api.repository("quarkusio/quarkus", false);
+        for (String platformProject : GetContributors.PLATFORM_PROJECTS.keySet()) {
+            api.repository(platformProject, false);
+        }
+        for (String extension : extensions) {
+            api.repository(extension, false);
+        }
+        for (String translation : TRANSLATIONS) {
+            api.repository(translation, false);
+        }
+        // the search results are sorted by name so the empty repository is in the middle of the first page
+        api.repository("quarkiverse/quarkus-empty", true);
+    }
+
+    @AfterEach
+    void stop() {
+        api.close();
+    }
+
+    @Test
+    void discoversTheRepositories() throws Exception {
+        DiscoveredRepositories repositories = discover();
+
+        assertEquals("quarkusio/quarkus", repositories.quarkus().fullName());
+        assertEquals("main", repositories.quarkus().defaultBranch());
+        assertEquals(new ArrayList<>(new TreeSet<>(GetContributors.PLATFORM_PROJECTS.keySet())),
+                fullNames(repositories.platformProjects()));
+        assertEquals(TRANSLATIONS, fullNames(repositories.websiteTranslationsRepositories()));
+        // one query for the repositories and the first pages of the searches, one for each next page
+        assertEquals(3, api.requests());
+        assertEquals(List.of(), delays);
+    }
+
+    @Test
+    void followsTheCursorsOfTheSearches() throws Exception {
+        DiscoveredRepositories repositories = discover();
+
+        assertEquals(extensions, fullNames(repositories.quarkiverseExtensions()));
+    }
+
+    @Test
+    void skipsTheEmptyRepositories() throws Exception {
+        DiscoveredRepositories repositories = discover();
+
+        assertTrue(fullNames(repositories.quarkiverseExtensions()).stream()
+                .noneMatch(fullName -> fullName.equals("quarkiverse/quarkus-empty")));
+        assertTrue(repositories.quarkiverseExtensions().stream()
+                .allMatch(repository -> "main".equals(repository.defaultBranch())));
+    }
+
+    @Test
+    void failsOnAnEmptyRequiredRepository() throws Exception {
+        api.repository("quarkusio/quarkus", true);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, this::discover);
+
+        assertEquals("Repository quarkusio/quarkus is empty, it has no default branch to analyze", e.getMessage());
+    }
+
+    @Test
+    void retriesTheServerErrors() throws Exception {
+        api.failQueries(2, 502);
+
+        DiscoveredRepositories repositories = discover();
+
+        assertEquals(EXTENSIONS, repositories.quarkiverseExtensions().size());
+        assertEquals(5, api.requests());
+        // exponential backoff
+        assertEquals(List.of(Duration.ofSeconds(1), Duration.ofSeconds(2)), delays);
+        assertEquals(List.of("the GraphQL query failed with status 502", "the GraphQL query failed with status 502"),
+                reasons);
+    }
+
+    @Test
+    void failsAfterTheLastAttempt() throws Exception {
+        api.failQueries(5, 502);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, this::discover);
+
+        assertTrue(e.getMessage().contains("status: 502"), e.getMessage());
+        assertEquals(5, api.requests());
+        assertEquals(4, delays.size());
+    }
+
+    @Test
+    void waitsForTheResetWhenRateLimited() throws Exception {
+        api.rateLimitQueries(1);
+
+        // the retry is paced by the rate limit of the rate limited response, the scheduler has to actually wait
+        DiscoveredRepositories repositories = discover(true);
+
+        assertEquals(EXTENSIONS, repositories.quarkiverseExtensions().size());
+        assertEquals(4, api.requests());
+        // the reset is in a second, rounded to the second, plus a second of margin
+        assertEquals(1, delays.size());
+        assertTrue(delays.get(0).compareTo(Duration.ofSeconds(3)) <= 0 && !delays.get(0).isNegative(),
+                delays.toString());
+        assertEquals(List.of("the GraphQL query has been rate limited"), reasons);
+    }
+
+    @Test
+    void pacesTheQueriesWhenTheRateLimitIsLow() throws Exception {
+        api.rateLimit(5, Instant.now().plusSeconds(60));
+
+        discover();
+
+        // each query after the first one waits for the reset
+        assertEquals(3, api.requests());
+        assertEquals(2, delays.size());
+        for (Duration delay : delays) {
+            assertTrue(delay.compareTo(Duration.ofSeconds(55)) > 0 && delay.compareTo(Duration.ofSeconds(62)) <= 0,
+                    delays.toString());
+        }
+        assertEquals(List.of("only 5 points left in the rate limit", "only 5 points left in the rate limit"), reasons);
+    }
+
+    @Test
+    void doesNotPaceTheQueriesAboveTheReserve() throws Exception {
+        api.rateLimit(11, Instant.now().plusSeconds(60));
+
+        discover();
+
+        assertEquals(List.of(), delays);
+    }
+
+    private DiscoveredRepositories discover() throws Exception {
+        return discover(false);
+    }
+
+    /**
+     * @param wait whether the scheduler actually waits, the delays are recorded in any case
+     */
+    private DiscoveredRepositories discover(boolean wait) throws Exception {
+        RateLimitScheduler scheduler = new RateLimitScheduler() {
+
+            @Override
+            void sleep(Duration delay, String reason) throws InterruptedException {
+                delays.add(delay);
+                reasons.add(reason);
+                if (wait) {
+                    super.sleep(delay, reason);
+                }
+            }
+        };
+        return new GraphQLDiscovery(new GraphQLClient(api.url(), "token", scheduler)).discover();
+    }
+
+    private static List<String> fullNames(List<Repository> repositories) {
+        return repositories.stream().map(Repository::fullName).toList();
+    }
+}
@@ -0,0 +1,237 @@
+package io.quarkus.bot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+import io.quarkus.bot.JsonRouter.Response;
+
+/**
+ * Answers the {@code repository} and {@code search} queries of the GraphQL discovery on {@code POST /graphql}, from
+ * in-memory repositories, the searches being paginated with cursors. An empty repository has a null
+ * {@code defaultBranchRef}.
+ * <p>
+ * The rate limit headers of the responses can be set with {@link #rateLimit(int, Instant)}, and failures can be
+ * injected in the next queries with {@link #failQueries(int, int)} and {@link #rateLimitQueries(int)}.
+ */
+final class GraphQLStub extends JsonRouter implements AutoCloseable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // a GraphQL string literal, escaped as a JSON string
+    private static final String GRAPHQL_STRING = "(\"(?:[^\"\\\\]|\\\\.)*\")";
+    private static final Pattern GRAPHQL_REPOSITORY = Pattern
+            .compile("(\\w+): repository\\(owner: " + GRAPHQL_STRING + ", name: " + GRAPHQL_STRING + "\\)");
+    private static final Pattern GRAPHQL_SEARCH = Pattern.compile("(\\w+): search\\(query: " + GRAPHQL_STRING
+            + ", type: REPOSITORY, first: (\\d+)(?:, after: " + GRAPHQL_STRING + ")?\\)");
+
+    // the full names of the repositories, and whether they are empty
+    private final Map<String, Boolean> repositories = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> topics;
+    private final Queue<Response> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int rateLimitRemaining = 4999;
+    private volatile Instant rateLimitReset;
+
+    /**
+     * @param topics the full names of the repositories having each topic
+     */
+    private GraphQLStub(Map<String, List<String>> topics) {
+        this.topics = topics;
+    }
+
+    static GraphQLStub start(Map<String, List<String>> topics) throws IOException {
+        GraphQLStub stub = new GraphQLStub(topics);
+        stub.start(new InetSocketAddress("127.0.0.1", 0));
+        return stub;
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    /**
+     * Adds a repository, or replaces it.
+     */
+    void repository(String fullName, boolean empty) {
+        repositories.put(fullName, empty);
+    }
+
+    /**
+     * Sets the rate limit reported by the following responses.
+     */
+    void rateLimit(int remaining, Instant reset) {
+        this.rateLimitRemaining = remaining;
+        this.rateLimitReset = reset;
+    }
+
+    /**
+     * The next {@code count} queries fail with the given status, as when the GitHub gateway times out.
+     */
+    void failQueries(int count, int status) {
+        for (int i = 0; i < count; i++) {
+            failures.add(Response.error(status, "Server Error"));
+        }
+    }
+
+    /**
+     * The next {@code count} queries are rate limited: they get a {@code RATE_LIMITED} error and no points remain
+     * until the reset, in a second.
+     */
+    void rateLimitQueries(int count) {
+        for (int i = 0; i < count; i++) {
+            failures.add(new Response(200,
+                    Map.of("errors", List.of(Map.of("type", "RATE_LIMITED", "message", "API rate limit exceeded"))),
+                    Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset",
+                            String.valueOf(Instant.now().plusSeconds(1).getEpochSecond()))));
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    @Override
+    Response route(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod()) || !"/graphql".equals(exchange.getRequestURI().getPath())) {
+            return Response.error(404, "Unknown path " + exchange.getRequestURI().getPath());
+        }
+        Response failure = failures.poll();
+        if (failure != null) {
+            return failure;
+        }
+        return graphQL(OBJECT_MAPPER.readTree(exchange.getRequestBody()).path("query").asText());
+    }
+
+    /**
+     * The headers of a response override the rate limit headers.
+     */
+    @Override
+    void send(HttpExchange exchange, Response response, byte[] body) throws IOException {
+        requests.incrementAndGet();
+        Instant reset = rateLimitReset != null ? rateLimitReset : Instant.now().plusSeconds(3600);
+        exchange.getResponseHeaders().set("X-RateLimit-Limit", "5000");
+        exchange.getResponseHeaders().set("X-RateLimit-Remaining", String.valueOf(rateLimitRemaining));
+        exchange.getResponseHeaders().set("X-RateLimit-Reset", String.valueOf(reset.getEpochSecond()));
+        super.send(exchange, response, body);
+    }
+
+    /**
+     * Each aliased {@code repository} and {@code search} field of the query is resolved, the other fields are ignored
+     * and the requested fields are always all returned.
+     */
+    private Response graphQL(String query) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+
+        Matcher repositoryField = GRAPHQL_REPOSITORY.matcher(query);
+        while (repositoryField.find()) {
+            String fullName = string(repositoryField.group(2)) + "/" + string(repositoryField.group(3));
+            if (repositories.containsKey(fullName)) {
+                data.put(repositoryField.group(1), repository(fullName));
+            } else {
+                data.put(repositoryField.group(1), null);
+                errors.add(Map.of("type", "NOT_FOUND", "path", List.of(repositoryField.group(1)), "message",
+                        "Could not resolve to a Repository with the name '" + fullName + "'."));
+            }
+        }
+
+        Matcher searchField = GRAPHQL_SEARCH.matcher(query);
+        while (searchField.find()) {
+            List<String> matchingRepositories = search(string(searchField.group(2)));
+            int pageSize = Math.min(MAX_PAGE_SIZE, Integer.parseInt(searchField.group(3)));
+            // the cursors are opaque for the clients, ours are the offset of the last returned repository
+            int start = searchField.group(4) != null
+                    ? Integer.parseInt(new String(Base64.getDecoder().decode(string(searchField.group(4))),
+                            StandardCharsets.UTF_8).substring("cursor:".length()))
+                    : 0;
+            int end = Math.min(start + pageSize, matchingRepositories.size());
+
+            List<Map<String, Object>> nodes = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                nodes.add(repository(matchingRepositories.get(i)));
+            }
+            Map<String, Object> pageInfo = new LinkedHashMap<>();
+            pageInfo.put("hasNextPage", end < matchingRepositories.size());
+            pageInfo.put("endCursor", end > start
+                    ? Base64.getEncoder().encodeToString(("cursor:" + end).getBytes(StandardCharsets.UTF_8))
+                    : null);
+            data.put(searchField.group(1), Map.of("pageInfo", pageInfo, "nodes", nodes));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("data", data);
+        if (!errors.isEmpty()) {
+            body.put("errors", errors);
+        }
+        return new Response(200, body);
+    }
+
+    /**
+     * @return the full names of the repositories matching the {@code org:} and {@code topic:} qualifiers of a search,
+     *         sorted
+     */
+    private List<String> search(String query) {
+        String owner = null;
+        String topic = null;
+        for (String qualifier : query.split(" ")) {
+            if (qualifier.startsWith("org:")) {
+                owner = qualifier.substring("org:".length());
+            } else if (qualifier.startsWith("topic:")) {
+                topic = qualifier.substring("topic:".length());
+            }
+        }
+
+        List<String> matchingRepositories = new ArrayList<>();
+        for (String fullName : topics.getOrDefault(topic, List.of())) {
+            if (repositories.containsKey(fullName) && (owner == null || fullName.startsWith(owner + "/"))) {
+                matchingRepositories.add(fullName);
+            }
+        }
+        matchingRepositories.sort(null);
+        return matchingRepositories;
+    }
+
+    private Map<String, Object> repository(String fullName) {
+        Map<String, Object> repository = new LinkedHashMap<>();
+        repository.put("name", fullName.substring(fullName.indexOf('/') + 1));
+        repository.put("nameWithOwner", fullName);
+        repository.put("sshUrl", "git@github.com:" + fullName + ".git");
+        repository.put("defaultBranchRef", repositories.get(fullName) ? null : Map.of("name", "main"));
+        return repository;
+    }
+
+    /**
+     * The GraphQL strings are escaped as the JSON ones.
+     */
+    private static String string(String literal) {
+        try {
+            return OBJECT_MAPPER.readValue(literal, String.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
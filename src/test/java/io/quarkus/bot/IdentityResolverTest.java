@@ -0,0 +1,215 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.bot.GetContributors.Contribution;
+import io.quarkus.bot.GetContributors.IdentityResolver;
+import io.quarkus.bot.GetContributors.RepositoryIds;
+
+class IdentityResolverTest {
+
+    @Test
+    void joinsTheAuthorsSharingAKey() {
+        List<String> contributions = resolve(List.of(
+                push("Alice", "alice@example.com", 1, "quarkusio/quarkus"),
+                push("Alice", "alice@example.org", 2, "quarkiverse/quarkus-a"),
+                push("Bob", "bob@example.com", 3, "quarkusio/quarkus")));
+
+        assertEquals(List.of(
+                "Alice <alice@example.org> () 3 [quarkiverse/quarkus-a, quarkusio/quarkus]",
+                "Bob <bob@example.com> () 3 [quarkusio/quarkus]"), contributions);
+    }
+
+    @Test
+    void joinsTheChainsOfAuthorsThroughDifferentKeys() {
+        // A and B share an email, B and C a name, C and D a handle: none of A and D's keys are shared directly
+        List<String> contributions = resolve(List.of(
+                push("Alice", "alice@example.com", 3, "quarkusio/quarkus"),
+                push("Alice L.", "alice@example.com", 2, "quarkiverse/quarkus-a"),
+                push("Alice L.", "12345+aliceliddell@users.noreply.github.com", 1, "quarkiverse/quarkus-b"),
+                push("A. Liddell", "67890+aliceliddell@users.noreply.github.com", 4, "quarkiverse/quarkus-c"),
+                push("Bob", "bob@example.com", 5, "quarkusio/quarkus")));
+
+        assertEquals(List.of(
+                "A. Liddell <alice@example.com> () 10 "
+                        + "[quarkiverse/quarkus-a, quarkiverse/quarkus-b, quarkiverse/quarkus-c, quarkusio/quarkus]",
+                "Bob <bob@example.com> () 5 [quarkusio/quarkus]"), contributions);
+    }
+
+    @Test
+    void joinsTheChainsWhateverTheOrder() {
+        // the chain is only closed by the last author pushed in this order
+        List<String> contributions = resolve(List.of(
+                push("Alice", "alice@example.com", 1, "quarkusio/quarkus"),
+                push("Liddell", "liddell@example.com", 1, "quarkusio/quarkus"),
+                push("Alice", "liddell@example.com", 1, "quarkusio/quarkus")));
+
+        assertEquals(List.of("Liddell <liddell@example.com> () 3 [quarkusio/quarkus]"), contributions);
+    }
+
+    @Test
+    void joinsTheTransliteratedNames() {
+        List<String> contributions = resolve(List.of(
+                push("José Müller", "jose@example.com", 2, "quarkusio/quarkus"),
+                push("Jose Muller", "jmuller@example.com", 1, "quarkusio/quarkus"),
+                push("JOSE MULLER", "", 1, "quarkusio/quarkus")));
+
+        assertEquals(List.of("José Müller <jose@example.com> () 4 [quarkusio/quarkus]"), contributions);
+    }
+
+    @Test
+    void prefersTheOriginalNamesToTheirTransliterations() {
+        for (List<Push> pushes : permutations(List.of(
+                push("JOSE MULLER", "jose@example.com", 1, "quarkusio/quarkus"),
+                push("José Müller", "jose@example.com", 1, "quarkusio/quarkus"),
+                push("Jose Muller", "jose@example.com", 1, "quarkusio/quarkus")))) {
+            assertEquals(List.of("José Müller <jose@example.com> () 3 [quarkusio/quarkus]"), resolve(pushes));
+        }
+    }
+
+    @Test
+    void doesNotJoinTheBlankKeys() {
+        List<String> contributions = resolve(List.of(
+                push("", "alice@example.com", 1, "quarkusio/quarkus"),
+                push("", "bob@example.com", 1, "quarkusio/quarkus"),
+                push("Carol", "", 1, "quarkusio/quarkus"),
+                push("Dave", "", 1, "quarkusio/quarkus")));
+
+        assertEquals(4, contributions.size());
+    }
+
+    @Test
+    void givesTheSameContributionsWhateverThePushOrder() {
+        List<Push> pushes = List.of(
+                push("Alice", "alice@example.com", 3, "quarkusio/quarkus"),
+                push("Alice L.", "alice@example.com", 2, "quarkiverse/quarkus-a"),
+                push("Alice L.", "12345+aliceliddell@users.noreply.github.com", 1, "quarkiverse/quarkus-b"),
+                push("A. Liddell", "67890+aliceliddell@users.noreply.github.com", 4, "quarkiverse/quarkus-c"),
+                push("Bob", "bob@example.com", 5, "quarkusio/quarkus"),
+                push("Bobby", "bob@example.com", 5, "quarkiverse/quarkus-a"));
+
+        List<String> expected = resolve(pushes);
+        for (List<Push> permutation : permutations(pushes)) {
+            assertEquals(expected, resolve(permutation), permutation.toString());
+        }
+    }
+
+    @Test
+    void keepsTheLongestName() {
+        List<String> contributions = resolve(List.of(
+                push("Alice", "alice@example.com", 10, "quarkusio/quarkus"),
+                push("Alice Liddell", "alice@example.com", 1, "quarkusio/quarkus"),
+                push("Alice L.", "alice@example.com", 5, "quarkusio/quarkus")));
+
+        assertEquals(List.of("Alice Liddell <alice@example.com> () 16 [quarkusio/quarkus]"), contributions);
+    }
+
+    @Test
+    void breaksTheNameTiesWithTheCommits() {
+        for (List<Push> pushes : permutations(List.of(
+                push("Alicea", "alice@example.com", 3, "quarkusio/quarkus"),
+                push("Alicia", "alice@example.com", 2, "quarkusio/quarkus"),
+                // the commits of a name are summed over its emails
+                push("Alicia", "alice@example.org", 2, "quarkusio/quarkus")))) {
+            assertEquals(List.of("Alicia <alice@example.com> () 7 [quarkusio/quarkus]"), resolve(pushes));
+        }
+    }
+
+    @Test
+    void breaksTheNameTiesWithTheNaturalOrder() {
+        for (List<Push> pushes : permutations(List.of(
+                push("Alicia", "alice@example.com", 1, "quarkusio/quarkus"),
+                push("Alicea", "alice@example.com", 1, "quarkusio/quarkus"),
+                push("alicee", "alice@example.com", 1, "quarkusio/quarkus")))) {
+            assertEquals(List.of("Alicea <alice@example.com> () 3 [quarkusio/quarkus]"), resolve(pushes));
+        }
+    }
+
+    @Test
+    void keepsTheEmailWithTheMostCommits() {
+        // the commits of an email are summed over the names
+        List<String> contributions = resolve(List.of(
+                push("Alice", "alice@example.com", 3, "quarkusio/quarkus"),
+                push("Alice", "alice@example.org", 2, "quarkusio/quarkus"),
+                push("Alice L.", "alice@example.org", 2, "quarkusio/quarkus")));
+
+        assertEquals(List.of("Alice L. <alice@example.org> () 7 [quarkusio/quarkus]"), contributions);
+    }
+
+    @Test
+    void breaksTheEmailTiesWithTheNaturalOrder() {
+        for (List<Push> pushes : permutations(List.of(
+                push("Alice", "alice@example.org", 2, "quarkusio/quarkus"),
+                push("Alice", "alice@example.com", 2, "quarkusio/quarkus"),
+                push("Alice", "liddell@example.com", 1, "quarkusio/quarkus")))) {
+            assertEquals(List.of("Alice <alice@example.com> () 5 [quarkusio/quarkus]"), resolve(pushes));
+        }
+    }
+
+    @Test
+    void prefersAnEmailToAHandle() {
+        List<String> contributions = resolve(List.of(
+                push("Alice", "12345+alice@users.noreply.github.com", 10, "quarkusio/quarkus"),
+                push("Alice", "alice@example.com", 1, "quarkusio/quarkus")));
+
+        assertEquals(List.of("Alice <alice@example.com> () 11 [quarkusio/quarkus]"), contributions);
+    }
+
+    @Test
+    void keepsTheHandleWithTheMostCommitsWithoutEmail() {
+        for (List<Push> pushes : permutations(List.of(
+                push("Alice", "1+alice@users.noreply.github.com", 1, "quarkusio/quarkus"),
+                push("Alice", "2+aliceliddell@users.noreply.github.com", 3, "quarkusio/quarkus"),
+                push("Alice", "3+liddell@users.noreply.github.com", 3, "quarkusio/quarkus")))) {
+            assertEquals(List.of("Alice <> (aliceliddell) 7 [quarkusio/quarkus]"), resolve(pushes));
+        }
+    }
+
+    private static List<String> resolve(List<Push> pushes) {
+        RepositoryIds repositoryIds = new RepositoryIds();
+        IdentityResolver identityResolver = new IdentityResolver(repositoryIds);
+        for (Push push : pushes) {
+            BitSet repositories = new BitSet();
+            repositories.set(repositoryIds.id(push.repository()));
+            identityResolver.push(push.name(), push.email(), push.commits(), repositories);
+        }
+
+        List<String> contributions = new ArrayList<>();
+        for (Contribution contribution : identityResolver.contributions()) {
+            contributions.add(contribution.author + " <" + contribution.email + "> (" + contribution.username + ") "
+                    + contribution.commits + " " + contribution.repositoryNames());
+        }
+        return contributions;
+    }
+
+    private static List<List<Push>> permutations(List<Push> pushes) {
+        if (pushes.isEmpty()) {
+            return List.of(List.of());
+        }
+        List<List<Push>> permutations = new ArrayList<>();
+        for (int i = 0; i < pushes.size(); i++) {
+            List<Push> others = new ArrayList<>(pushes);
+            Push first = others.remove(i);
+            for (List<Push> permutation : permutations(others)) {
+                List<Push> withFirst = new ArrayList<>();
+                withFirst.add(first);
+                withFirst.addAll(permutation);
+                permutations.add(withFirst);
+            }
+        }
+        return permutations;
+    }
+
+    private static Push push(String name, String email, int commits, String repository) {
+        return new Push(name, email, commits, repository);
+    }
+
+    private record Push(String name, String email, int commits, String repository) {
+    }
+}
@@ -0,0 +1,120 @@
+package io.quarkus.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.bot.GetContributors.Contribution;
+import io.quarkus.bot.GetContributors.ContributionWriter;
+import io.quarkus.bot.GetContributors.OutputFormat;
+import io.quarkus.bot.GetContributors.RepositoryIds;
+
+class OutputFormatTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesTheSameCsvAsBefore() throws IOException {
+        Path file = write(OutputFormat.csv, contributions());
+
+        // the rows as they were written before the output formats were introduced
+        assertEquals("Name;Email;GH handle if no email;Commits;Repositories\n"
+                + "\"José Müller\";\"jose@example.com\";;12;quarkiverse/quarkus-a,quarkusio/quarkus\n"
+                + "\"Bob\";\"\";bobby;3;quarkusio/quarkus\n"
+                + "\"Carol\";\"carol@example.com\";;1;quarkiverse/quarkus-a\n",
+                Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws IOException {
+        Path file = write(OutputFormat.jsonl, contributions());
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertEquals("José Müller", first.get("name").asText());
+        assertEquals("jose@example.com", first.get("email").asText());
+        assertEquals("", first.get("username").asText());
+        assertEquals(12, first.get("commits").asInt());
+        assertEquals("[\"quarkiverse/quarkus-a\",\"quarkusio/quarkus\"]", first.get("repositories").toString());
+        assertEquals("bobby", new ObjectMapper().readTree(lines.get(1)).get("username").asText());
+        assertTrue(Files.readString(file, StandardCharsets.UTF_8).endsWith("}\n"));
+    }
+
+    @Test
+    void writesAnEmptyJsonLinesFileWithoutContributions() throws IOException {
+        Path file = write(OutputFormat.jsonl, List.of());
+
+        assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    void readsBackTheBinarySnapshots() throws IOException {
+        List<Contribution> contributions = new ArrayList<>(contributions());
+        // longer than what DataOutputStream.writeUTF() supports
+        String longName = "é".repeat(40_000);
+        contributions.add(contribution(new RepositoryIds(), longName, "long@example.com", "", 2, "quarkusio/quarkus"));
+
+        Path file = write(OutputFormat.binary, contributions);
+
+        assertEquals(describe(contributions), describe(BinarySnapshot.read(file)));
+    }
+
+    @Test
+    void readsBackAnEmptyBinarySnapshot() throws IOException {
+        Path file = write(OutputFormat.binary, List.of());
+
+        assertEquals(List.of(), BinarySnapshot.read(file));
+    }
+
+    private Path write(OutputFormat outputFormat, List<Contribution> contributions) throws IOException {
+        Path file = directory.resolve(outputFormat.file("contributors"));
+        try (ContributionWriter writer = outputFormat.open(file)) {
+            for (Contribution contribution : contributions) {
+                writer.write(contribution);
+            }
+        }
+        return file;
+    }
+
+    private static List<Contribution> contributions() {
+        RepositoryIds repositoryIds = new RepositoryIds();
+        return List.of(
+                contribution(repositoryIds, "José Müller", "jose@example.com", "", 12, "quarkusio/quarkus",
+                        "quarkiverse/quarkus-a"),
+                contribution(repositoryIds, "Bob", "", "bobby", 3, "quarkusio/quarkus"),
+                contribution(repositoryIds, "Carol", "carol@example.com", "", 1, "quarkiverse/quarkus-a"));
+    }
+
+    private static Contribution contribution(RepositoryIds repositoryIds, String author, String email, String username,
+            int commits, String... repositories) {
+        BitSet repositoryBits = new BitSet();
+        for (String repository : repositories) {
+            repositoryBits.set(repositoryIds.id(repository));
+        }
+        return new Contribution(author, email, username, commits, repositoryBits, repositoryIds);
+    }
+
+    private static List<String> describe(List<Contribution> contributions) {
+        List<String> descriptions = new ArrayList<>();
+        for (Contribution contribution : contributions) {
+            descriptions.add(contribution.author + " <" + contribution.email + "> (" + contribution.username + ") "
+                    + contribution.commits + " " + contribution.repositoryNames());
+        }
+        return descriptions;
+    }
+}